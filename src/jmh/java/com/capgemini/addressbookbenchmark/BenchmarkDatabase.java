@@ -0,0 +1,115 @@
+package com.capgemini.addressbookbenchmark;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import com.capgemini.addressbookdb.AddressBook;
+import com.capgemini.addressbookdb.AddressBookDB;
+import com.capgemini.addressbookdb.BulkLoadResult;
+import com.capgemini.addressbookdb.ConnectionPool;
+import com.capgemini.addressbookdb.ConnectionPoolConfig;
+import com.capgemini.addressbookdb.Contact;
+import com.capgemini.addressbookdb.ContactIndex;
+import com.capgemini.addressbookdb.DatabaseException;
+import com.capgemini.addressbookdb.SchemaMigrator;
+
+/**
+ * Embedded H2 database in MySQL mode with the addressBookService tables,
+ * seeded with generated contacts, plus the generator itself for benchmarks
+ * that work on in-memory address books. The data is derived from a fixed
+ * seed so every run and every release measures the same contacts.
+ */
+public class BenchmarkDatabase {
+	static final String[] FIRST_NAMES = { "Aditya", "Rahul", "Priya", "Neha", "Amit", "Sneha", "Rohan", "Pooja",
+			"Vikram", "Anjali", "Suresh", "Kavita", "Nikhil", "Shruti", "Ganesh", "Meera" };
+	static final String[] LAST_NAMES = { "Kharade", "Deshmukh", "Patil", "Joshi", "Kulkarni", "Sharma", "Pawar",
+			"Shinde", "Jadhav", "Iyer", "Reddy", "Nair", "Gupta", "More", "Sarap", "Rao" };
+	static final String[][] CITIES = { { "Akola", "Maharashtra" }, { "Pune", "Maharashtra" },
+			{ "Mumbai", "Maharashtra" }, { "Nagpur", "Maharashtra" }, { "Bengaluru", "Karnataka" },
+			{ "Mysuru", "Karnataka" }, { "Chennai", "Tamil Nadu" }, { "Madurai", "Tamil Nadu" },
+			{ "Hyderabad", "Telangana" }, { "Kochi", "Kerala" }, { "Jaipur", "Rajasthan" },
+			{ "Lucknow", "Uttar Pradesh" } };
+	private static final int SEED_CHUNK_SIZE = 5000;
+
+	private final ConnectionPool connectionPool;
+	private final AddressBookDB addressBookDB;
+
+	/**
+	 * @param name         in-memory database name, one per benchmark state
+	 * @param contactCount contacts inserted after the tables are created
+	 */
+	public BenchmarkDatabase(String name, int contactCount) throws DatabaseException {
+		ConnectionPoolConfig config = new ConnectionPoolConfig();
+		config.setDriverClassName("org.h2.Driver");
+		config.setJdbcURL("jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+		config.setUserName("sa");
+		config.setPassword("");
+		config.setHousekeepingPeriodMillis(0);
+		connectionPool = new ConnectionPool(config);
+		try (Connection connection = connectionPool.getConnection();
+				Statement statement = connection.createStatement()) {
+			statement.execute("RUNSCRIPT FROM 'classpath:benchmark-schema.sql'");
+		} catch (SQLException e) {
+			throw new DatabaseException("Unable to create the benchmark tables");
+		}
+		new SchemaMigrator(connectionPool).migrate();
+		addressBookDB = new AddressBookDB(connectionPool);
+		BulkLoadResult result = addressBookDB.addContacts(contacts(contactCount), SEED_CHUNK_SIZE);
+		if (result.getFailedCount() > 0) {
+			throw new DatabaseException("Unable to seed the benchmark contacts: " + result.getFailures().get(0));
+		}
+	}
+
+	public AddressBookDB getAddressBookDB() {
+		return addressBookDB;
+	}
+
+	public void shutdown() {
+		connectionPool.shutdown();
+	}
+
+	/**
+	 * @return generated contacts, spread over the cities and both address
+	 *         books
+	 */
+	public static List<Contact> contacts(int count) {
+		Random random = new Random(42);
+		List<Contact> contacts = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			String[] city = CITIES[random.nextInt(CITIES.length)];
+			String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+			String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)] + i;
+			contacts.add(new Contact(firstName, lastName, (1 + random.nextInt(500)) + " Main Road", city[0], city[1],
+					400000L + random.nextInt(200000), 7000000000L + random.nextInt(999999999),
+					firstName.toLowerCase() + i + "@gmail.com", LocalDate.of(2015, 1, 1).plusDays(random.nextInt(2500)),
+					1 + i % 2));
+		}
+		return contacts;
+	}
+
+	/**
+	 * Groups the contacts into one address book per city, the way
+	 * AddressBookMain keeps them, registering every contact in the index.
+	 * The books are filled directly since addContact's duplicate check is
+	 * not what these benchmarks measure.
+	 */
+	public static List<AddressBook> addressBooks(List<Contact> contacts, ContactIndex contactIndex) {
+		List<AddressBook> books = new ArrayList<>();
+		for (String[] city : CITIES) {
+			books.add(new AddressBook(city[0], contactIndex));
+		}
+		for (Contact contact : contacts) {
+			for (AddressBook book : books) {
+				if (book.city.equals(contact.getCity())) {
+					book.getContactList().add(contact);
+					contactIndex.add(contact);
+				}
+			}
+		}
+		return books;
+	}
+}
@@ -0,0 +1,70 @@
+package com.capgemini.addressbookbenchmark;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import com.capgemini.addressbookdb.AddressBookDB;
+import com.capgemini.addressbookdb.BulkLoadResult;
+import com.capgemini.addressbookdb.Contact;
+import com.capgemini.addressbookdb.DatabaseException;
+
+/**
+ * Database paths of AddressBookDB: full loads with readData, and inserts one
+ * contact at a time against batched inserts. The insert benchmarks report
+ * the time per contact, so both modes compare directly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ContactDatabaseBenchmark {
+	private static final int BATCH_SIZE = 100;
+
+	@Param({ "10000", "100000", "1000000" })
+	public int contactCount;
+
+	private BenchmarkDatabase database;
+	private AddressBookDB addressBookDB;
+	private List<Contact> batch;
+
+	@Setup(Level.Trial)
+	public void setup() throws DatabaseException {
+		database = new BenchmarkDatabase("database" + contactCount, contactCount);
+		addressBookDB = database.getAddressBookDB();
+		batch = BenchmarkDatabase.contacts(BATCH_SIZE);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		database.shutdown();
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public List<Contact> readData() throws DatabaseException {
+		return addressBookDB.readData();
+	}
+
+	@Benchmark
+	public Contact addContact() throws DatabaseException, SQLException {
+		return addressBookDB.addContact("Aniket", "Sarap", "Ranpise Nagar", 444005L, "Akola", "Maharashtra",
+				9988776655L, "aniket@gmail.com", LocalDate.of(2021, 1, 1), 1);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public BulkLoadResult addContactsBatched() throws DatabaseException {
+		return addressBookDB.addContacts(batch, BATCH_SIZE);
+	}
+}
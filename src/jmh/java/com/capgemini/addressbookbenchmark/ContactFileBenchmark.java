@@ -0,0 +1,136 @@
+package com.capgemini.addressbookbenchmark;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import com.capgemini.addressbookdb.AddressBook;
+import com.capgemini.addressbookdb.AddressBookException;
+import com.capgemini.addressbookdb.AddressBookService;
+import com.capgemini.addressbookdb.AddressBookSnapshot;
+import com.capgemini.addressbookdb.Contact;
+import com.capgemini.addressbookdb.ContactIndex;
+import com.capgemini.addressbookdb.DatabaseException;
+
+/**
+ * Text, CSV, JSON and snapshot export and import of the address books. The files live
+ * in a temporary directory and are written once before the trial so the read
+ * benchmarks always find them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ContactFileBenchmark {
+	@Param({ "10000", "100000", "1000000" })
+	public int contactCount;
+
+	private BenchmarkDatabase database;
+	private AddressBookService addressBookService;
+	private Map<String, AddressBook> cityBookMap;
+	private Path directory;
+	private PrintStream console;
+
+	@Setup(Level.Trial)
+	public void setup() throws DatabaseException, AddressBookException, IOException {
+		database = new BenchmarkDatabase("files" + contactCount, 0);
+		addressBookService = new AddressBookService(database.getAddressBookDB());
+		cityBookMap = new HashMap<>();
+		for (AddressBook book : BenchmarkDatabase.addressBooks(BenchmarkDatabase.contacts(contactCount),
+				new ContactIndex())) {
+			cityBookMap.put(book.city, book);
+		}
+		directory = Files.createTempDirectory("addressbook-benchmark");
+		AddressBookService.FILE_NAME = directory.resolve("AddressBook.txt").toString();
+		AddressBookService.CSV_FILE = directory.resolve("AddressBook.csv").toString();
+		AddressBookService.JSON_FILE = directory.resolve("AddressBook.json").toString();
+		AddressBookService.SNAPSHOT_FILE = directory.resolve("AddressBook.snapshot").toString();
+		addressBookService.writeData(cityBookMap);
+		addressBookService.writeDataToCSV(cityBookMap);
+		addressBookService.writeDataToJSON(cityBookMap);
+		addressBookService.writeSnapshot(cityBookMap, stateBookMap());
+		console = QuietConsole.mute();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		QuietConsole.restore(console);
+		Files.deleteIfExists(directory.resolve("AddressBook.txt"));
+		Files.deleteIfExists(directory.resolve("AddressBook.csv"));
+		Files.deleteIfExists(directory.resolve("AddressBook.json"));
+		Files.deleteIfExists(directory.resolve("AddressBook.snapshot"));
+		Files.deleteIfExists(directory);
+		database.shutdown();
+	}
+
+	@Benchmark
+	public void writeText() throws AddressBookException {
+		addressBookService.writeData(cityBookMap);
+	}
+
+	@Benchmark
+	public void readText() throws AddressBookException {
+		addressBookService.readData();
+	}
+
+	@Benchmark
+	public void writeCSV() throws AddressBookException {
+		addressBookService.writeDataToCSV(cityBookMap);
+	}
+
+	@Benchmark
+	public List<Contact> readCSV() throws AddressBookException {
+		return addressBookService.readDataFromCSV();
+	}
+
+	@Benchmark
+	public List<Contact> readCSVParallel() throws AddressBookException {
+		return addressBookService.readDataFromCSV(Runtime.getRuntime().availableProcessors());
+	}
+
+	@Benchmark
+	public void writeJSON() throws IOException {
+		addressBookService.writeDataToJSON(cityBookMap);
+	}
+
+	@Benchmark
+	public List<Contact> readJSON() throws AddressBookException {
+		return addressBookService.readDataFromJSON();
+	}
+
+	@Benchmark
+	public void writeSnapshot() throws AddressBookException {
+		addressBookService.writeSnapshot(cityBookMap, stateBookMap());
+	}
+
+	@Benchmark
+	public AddressBookSnapshot readSnapshot() throws AddressBookException {
+		return addressBookService.readSnapshot(new ContactIndex());
+	}
+
+	/**
+	 * Every state shares the city map, as in AddressBookMain
+	 */
+	private Map<String, Map<String, AddressBook>> stateBookMap() {
+		Map<String, Map<String, AddressBook>> stateBookMap = new HashMap<>();
+		for (AddressBook book : cityBookMap.values()) {
+			for (Contact contact : book.getContactList()) {
+				stateBookMap.put(contact.getState(), cityBookMap);
+			}
+		}
+		return stateBookMap;
+	}
+}
@@ -0,0 +1,89 @@
+package com.capgemini.addressbookbenchmark;
+
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import com.capgemini.addressbookdb.AddressBook;
+import com.capgemini.addressbookdb.AddressBookMain;
+import com.capgemini.addressbookdb.AddressBookService;
+import com.capgemini.addressbookdb.AddressBookService.IOService;
+import com.capgemini.addressbookdb.ColumnarContactStore;
+import com.capgemini.addressbookdb.Contact;
+import com.capgemini.addressbookdb.DatabaseException;
+
+/**
+ * In-memory lookups: AddressBookService.getContact over contacts loaded from
+ * the database, and the city and state queries of AddressBookMain.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ContactLookupBenchmark {
+	@Param({ "10000", "100000", "1000000" })
+	public int contactCount;
+
+	private BenchmarkDatabase database;
+	private AddressBookService addressBookService;
+	private AddressBookMain addressBookMain;
+	private List<Contact> contacts;
+	private ColumnarContactStore columnarStore;
+	private PrintStream console;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setup() throws DatabaseException {
+		database = new BenchmarkDatabase("lookup" + contactCount, contactCount);
+		addressBookService = new AddressBookService(database.getAddressBookDB());
+		contacts = addressBookService.readContactData(IOService.DB_IO);
+		columnarStore = new ColumnarContactStore(contacts);
+		addressBookMain = new AddressBookMain();
+		for (AddressBook book : BenchmarkDatabase.addressBooks(contacts, AddressBookMain.contactIndex)) {
+			AddressBookMain.cityBookMap.put(book.city, book);
+		}
+		AddressBookMain.stateBookMap = new HashMap<>();
+		console = QuietConsole.mute();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		QuietConsole.restore(console);
+		database.shutdown();
+	}
+
+	private Contact nextContact() {
+		next = (next + 7919) % contacts.size();
+		return contacts.get(next);
+	}
+
+	@Benchmark
+	public Contact getContact() {
+		return addressBookService.getContact(nextContact().getFirstName());
+	}
+
+	@Benchmark
+	public void searchPersonByCity() {
+		Contact contact = nextContact();
+		addressBookMain.searchPersonByCity(contact.getFirstName() + " " + contact.getLastName(), contact.getCity());
+	}
+
+	@Benchmark
+	public void countByState() {
+		addressBookMain.countByState(nextContact().getState());
+	}
+
+	@Benchmark
+	public int countByStateColumnar() {
+		return columnarStore.countByState(nextContact().getState());
+	}
+}
@@ -0,0 +1,76 @@
+package com.capgemini.addressbookbenchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import com.capgemini.addressbookdb.ColumnarContactStore;
+import com.capgemini.addressbookdb.Contact;
+import com.capgemini.addressbookdb.ContactSorter;
+import com.capgemini.addressbookdb.SortByName;
+import com.capgemini.addressbookdb.SortByZip;
+
+/**
+ * Sorting an unsorted address book with the comparators AddressBookMain
+ * uses. Each invocation sorts a fresh copy, so the copy is part of the
+ * measured time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ContactSortBenchmark {
+	@Param({ "10000", "100000", "1000000" })
+	public int contactCount;
+
+	private List<Contact> contacts;
+	private ColumnarContactStore columnarStore;
+
+	@Setup
+	public void setup() {
+		contacts = BenchmarkDatabase.contacts(contactCount);
+		Collections.shuffle(contacts, new Random(7));
+		columnarStore = new ColumnarContactStore(contacts);
+	}
+
+	@Benchmark
+	public List<Contact> sortByName() {
+		List<Contact> copy = new ArrayList<>(contacts);
+		Collections.sort(copy, new SortByName());
+		return copy;
+	}
+
+	@Benchmark
+	public List<Contact> sortByZip() {
+		List<Contact> copy = new ArrayList<>(contacts);
+		Collections.sort(copy, new SortByZip());
+		return copy;
+	}
+
+	@Benchmark
+	public List<Contact> sortByNameSorter() {
+		List<Contact> copy = new ArrayList<>(contacts);
+		ContactSorter.sortByName(copy);
+		return copy;
+	}
+
+	@Benchmark
+	public List<Contact> sortByZipRadix() {
+		List<Contact> copy = new ArrayList<>(contacts);
+		ContactSorter.sortByZip(copy);
+		return copy;
+	}
+
+	@Benchmark
+	public int[] sortByZipColumnar() {
+		return columnarStore.rowsSortedByZip();
+	}
+}
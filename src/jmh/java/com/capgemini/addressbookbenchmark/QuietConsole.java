@@ -0,0 +1,36 @@
+package com.capgemini.addressbookbenchmark;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Swallows System.out while a benchmark runs. Search and read paths print
+ * every contact they visit, which would otherwise measure the terminal.
+ */
+final class QuietConsole {
+	private static final PrintStream DISCARD = new PrintStream(new OutputStream() {
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+		}
+	});
+
+	private QuietConsole() {
+	}
+
+	/**
+	 * @return the stream to hand back to {@link #restore(PrintStream)}
+	 */
+	static PrintStream mute() {
+		PrintStream console = System.out;
+		System.setOut(DISCARD);
+		return console;
+	}
+
+	static void restore(PrintStream console) {
+		System.setOut(console);
+	}
+}
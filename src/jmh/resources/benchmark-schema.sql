@@ -0,0 +1,34 @@
+-- Tables for the benchmark database, seeded with generated contacts by BenchmarkDatabase
+DROP TABLE IF EXISTS schema_version;
+DROP TABLE IF EXISTS addressbookjoin;
+DROP TABLE IF EXISTS addressbook;
+DROP TABLE IF EXISTS contact_table;
+
+CREATE TABLE contact_table (
+	contact_id INT AUTO_INCREMENT PRIMARY KEY,
+	fname VARCHAR(50) NOT NULL,
+	lname VARCHAR(50) NOT NULL,
+	address VARCHAR(150),
+	zip BIGINT,
+	city VARCHAR(50),
+	state VARCHAR(50),
+	phone BIGINT,
+	email VARCHAR(100),
+	date DATE
+);
+
+CREATE TABLE addressbook (
+	add_id INT PRIMARY KEY,
+	addname VARCHAR(50) NOT NULL,
+	type VARCHAR(50) NOT NULL
+);
+
+CREATE TABLE addressbookjoin (
+	contact_id INT NOT NULL,
+	add_id INT NOT NULL,
+	PRIMARY KEY (contact_id, add_id),
+	FOREIGN KEY (contact_id) REFERENCES contact_table (contact_id),
+	FOREIGN KEY (add_id) REFERENCES addressbook (add_id)
+);
+
+INSERT INTO addressbook (add_id, addname, type) VALUES (1, 'Home', 'Family'), (2, 'Office', 'Profession');
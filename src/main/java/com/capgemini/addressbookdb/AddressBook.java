@@ -1,16 +1,46 @@
 package com.capgemini.addressbookdb;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.RandomAccess;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.TreeMap;
 
 public class AddressBook {
 	Scanner sc = new Scanner(System.in);
-	public List<Contact> contactList = new ArrayList<Contact>();
+	private final ContactList contacts = new ContactList();
+	public final List<Contact> contactList = contacts;
 	public String city;
+	private final ContactIndex contactIndex;
+	private final Set<Contact> changedContacts = Collections.newSetFromMap(new IdentityHashMap<>());
+	private final List<Contact> deletedContacts = new ArrayList<>();
+	private final Set<Contact> uniqueContacts = new HashSet<>();
+	private int uniqueChanges = -1;
+	private NavigableMap<String, List<Contact>> byName;
+	private NavigableMap<Long, List<Contact>> byZip;
+	private int viewChanges;
 
 	public AddressBook(String city) {
-		this.city = city;
+		this(city, null);
+	}
+
+	/**
+	 * @param city
+	 * @param contactIndex shared index kept in step with this book's contacts
+	 */
+	public AddressBook(String city, ContactIndex contactIndex) {
+		this.city = StringDictionary.CITIES.canonical(city);
+		this.contactIndex = contactIndex;
 	}
 
 	public List<Contact> getContactList() {
@@ -18,21 +48,73 @@ public class AddressBook {
 	}
 
 	public void addContact(Contact c) {
-		for (int i = 0; i < contactList.size(); i++) {
-			if (contactList.get(i).equals(c)) {
-				System.out.println("The person already exists!!!");
-				return;
+		if (!this.add(c)) {
+			System.out.println("The person already exists!!!");
+		}
+	}
+
+	/**
+	 * Adds the contacts in order, skipping any whose name is already in the
+	 * book or earlier in the collection
+	 * 
+	 * @return the number of contacts added
+	 */
+	public int addContacts(Collection<? extends Contact> contacts) {
+		this.contacts.ensureCapacity(contactList.size() + contacts.size());
+		int added = 0;
+		for (Contact c : contacts) {
+			if (this.add(c)) {
+				added++;
 			}
 		}
+		return added;
+	}
+
+	private boolean add(Contact c) {
+		if (!this.uniqueContacts().add(c)) {
+			return false;
+		}
+		boolean viewsCurrent = this.syncViews();
 		contactList.add(c);
+		uniqueChanges = contacts.changes;
+		changedContacts.add(c);
+		if (viewsCurrent) {
+			addToViews(c);
+			viewChanges = contacts.changes;
+		}
+		if (contactIndex != null) {
+			contactIndex.add(c);
+		}
+		return true;
+	}
+
+	/**
+	 * Names in the book, by {@link Contact#equals(Object)}, for the duplicate
+	 * check. Rebuilt when the list was changed through
+	 * {@link #getContactList()}; a contact renamed through its setters must
+	 * be deleted and added again. Sorting only reorders the list, so the sorts
+	 * keep the set current.
+	 */
+	private Set<Contact> uniqueContacts() {
+		if (uniqueChanges != contacts.changes) {
+			uniqueContacts.clear();
+			uniqueContacts.addAll(contactList);
+			uniqueChanges = contacts.changes;
+		}
+		return uniqueContacts;
 	}
 
 	public void editContact(String name) {
+		this.uniqueContacts();
+		boolean viewsCurrent = this.syncViews();
 		String x = "";
 		int i = 0;
 		for (Contact c : contactList) {
 			x = c.getFirstName() + " " + c.getLastName();
 			if (name.equals(x)) {
+				if (contactIndex != null) {
+					contactIndex.remove(c);
+				}
 				while (true) {
 					System.out.println("1.Change the phone number");
 					System.out.println("2.Change the Email id");
@@ -58,6 +140,10 @@ public class AddressBook {
 						break;
 					}
 				}
+				changedContacts.add(c);
+				if (contactIndex != null) {
+					contactIndex.add(c);
+				}
 
 			} else {
 				System.out.println("Enter correct name");
@@ -65,16 +151,242 @@ public class AddressBook {
 			contactList.set(i, c);
 			i++;
 		}
+		uniqueChanges = contacts.changes;
+		if (viewsCurrent) {
+			viewChanges = contacts.changes;
+		}
 	}
 
 	public void deleteContact(String name) {
-		String x = "";
+		Set<Contact> unique = this.uniqueContacts();
+		boolean viewsCurrent = this.syncViews();
+		Iterator<Contact> iterator = contactList.iterator();
+		while (iterator.hasNext()) {
+			Contact c = iterator.next();
+			if (ContactIndex.matchesFullName(c, name, false)) {
+				iterator.remove();
+				unique.remove(c);
+				changedContacts.remove(c);
+				deletedContacts.add(c);
+				if (viewsCurrent) {
+					removeFromViews(c);
+				}
+				if (contactIndex != null) {
+					contactIndex.remove(c);
+				}
+			}
+		}
+		uniqueChanges = contacts.changes;
+		if (viewsCurrent) {
+			viewChanges = contacts.changes;
+		}
+	}
+
+	/**
+	 * Contacts added or edited through this book, or changed through a
+	 * Contact setter, since the last {@link #markExported()}. Finding the
+	 * setter changes scans the list in memory, nothing is read or written.
+	 * 
+	 * @return the changed contacts in list order
+	 */
+	public List<Contact> getChangedContacts() {
+		List<Contact> changed = new ArrayList<>();
 		for (Contact c : contactList) {
-			x = c.getFirstName() + " " + c.getLastName();
-			if (name.equals(x)) {
-				contactList.remove(c);
+			if (c.isDirty() || changedContacts.contains(c)) {
+				changed.add(c);
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Contacts deleted from this book since the last {@link #markExported()},
+	 * under the names and city they were exported with, followed by the
+	 * exported names and city of contacts renamed or moved by a setter since,
+	 * so the old row goes away when the contact is written under its new one.
+	 * 
+	 * @return the deleted contacts and the replaced keys
+	 */
+	public List<Contact> getDeletedContacts() {
+		List<Contact> deleted = new ArrayList<>();
+		for (Contact c : deletedContacts) {
+			Contact exported = c.getExportedKey();
+			deleted.add(exported == null ? c : exported);
+		}
+		for (Contact c : contactList) {
+			Contact exported = c.getExportedKey();
+			if (exported != null) {
+				deleted.add(exported);
 			}
 		}
+		return deleted;
+	}
+
+	/**
+	 * Forgets the changes once they are written out
+	 */
+	public void markExported() {
+		for (Contact c : contactList) {
+			c.clearDirty();
+		}
+		changedContacts.clear();
+		deletedContacts.clear();
+	}
+
+	/**
+	 * Starts keeping this book ordered by name and by zip as contacts are
+	 * added and deleted, at O(log n) per change, so sorting and zip range
+	 * queries need no sort. Changes made straight to {@link #contactList},
+	 * such as a snapshot load, are noticed and the views rebuilt on next use.
+	 * The views key on the name and zip a contact had when it was indexed: a
+	 * contact whose name or zip is changed through its setters must be
+	 * deleted and added again, as editContact only changes phone and email.
+	 */
+	public void enableSortedViews() {
+		if (byName != null) {
+			return;
+		}
+		byName = new TreeMap<>();
+		byZip = new TreeMap<>();
+		this.rebuildViews();
+	}
+
+	public boolean hasSortedViews() {
+		return byName != null;
+	}
+
+	/**
+	 * Sorts the contact list by name, copying the sorted view when there is
+	 * one. Names with the same "firstName lastName" keep their order of
+	 * addition.
+	 */
+	public void sortByName() {
+		boolean uniqueCurrent = uniqueChanges == contacts.changes;
+		if (this.syncViews()) {
+			copyToList(byName.values());
+		} else {
+			ContactSorter.sortByName(contactList);
+		}
+		if (uniqueCurrent) {
+			uniqueChanges = contacts.changes;
+		}
+	}
+
+	/**
+	 * Sorts the contact list by zip, copying the sorted view when there is one
+	 */
+	public void sortByZip() {
+		boolean uniqueCurrent = uniqueChanges == contacts.changes;
+		if (this.syncViews()) {
+			copyToList(byZip.values());
+		} else {
+			ContactSorter.sortByZip(contactList);
+		}
+		if (uniqueCurrent) {
+			uniqueChanges = contacts.changes;
+		}
+	}
+
+	/**
+	 * @return the contacts in name order, read from the sorted view when there
+	 *         is one
+	 */
+	public List<Contact> getContactsSortedByName() {
+		if (this.syncViews()) {
+			return flatten(byName.values());
+		}
+		List<Contact> sorted = new ArrayList<>(contactList);
+		ContactSorter.sortByName(sorted);
+		return sorted;
+	}
+
+	/**
+	 * @return contacts with a zip from fromZip to toZip, both inclusive, in
+	 *         zip order
+	 */
+	public List<Contact> getContactsByZipRange(long fromZip, long toZip) {
+		if (fromZip > toZip) {
+			return new ArrayList<>();
+		}
+		if (this.syncViews()) {
+			return flatten(byZip.subMap(fromZip, true, toZip, true).values());
+		}
+		List<Contact> matches = new ArrayList<>();
+		for (Contact c : contactList) {
+			if (c.getZip() >= fromZip && c.getZip() <= toZip) {
+				matches.add(c);
+			}
+		}
+		ContactSorter.sortByZip(matches);
+		return matches;
+	}
+
+	/**
+	 * @return true when the views are enabled, after rebuilding them if the
+	 *         list was changed from outside the book
+	 */
+	private boolean syncViews() {
+		if (byName == null) {
+			return false;
+		}
+		if (viewChanges != contacts.changes) {
+			this.rebuildViews();
+		}
+		return true;
+	}
+
+	private void rebuildViews() {
+		byName.clear();
+		byZip.clear();
+		for (Contact c : contactList) {
+			addToViews(c);
+		}
+		viewChanges = contacts.changes;
+	}
+
+	private void copyToList(Collection<List<Contact>> buckets) {
+		ListIterator<Contact> iterator = contactList.listIterator();
+		for (List<Contact> bucket : buckets) {
+			for (Contact c : bucket) {
+				iterator.next();
+				iterator.set(c);
+			}
+		}
+		viewChanges = contacts.changes;
+	}
+
+	private static List<Contact> flatten(Collection<List<Contact>> buckets) {
+		List<Contact> contacts = new ArrayList<>();
+		for (List<Contact> bucket : buckets) {
+			contacts.addAll(bucket);
+		}
+		return contacts;
+	}
+
+	private void addToViews(Contact c) {
+		byName.computeIfAbsent(c.getNameKey(), key -> new ArrayList<>(1)).add(c);
+		byZip.computeIfAbsent(c.getZip(), zip -> new ArrayList<>(1)).add(c);
+	}
+
+	private void removeFromViews(Contact c) {
+		removeFromBucket(byName, c.getNameKey(), c);
+		removeFromBucket(byZip, c.getZip(), c);
+	}
+
+	private static <K> void removeFromBucket(Map<K, List<Contact>> view, K key, Contact c) {
+		List<Contact> bucket = view.get(key);
+		if (bucket == null) {
+			return;
+		}
+		for (int i = 0; i < bucket.size(); i++) {
+			if (bucket.get(i) == c) {
+				bucket.remove(i);
+				break;
+			}
+		}
+		if (bucket.isEmpty()) {
+			view.remove(key);
+		}
 	}
 
 	public void viewList() {
@@ -86,4 +398,54 @@ public class AddressBook {
 		}
 	}
 
+	/**
+	 * The book's contact list. Counts every change, including those made
+	 * through {@link AddressBook#getContactList()}, so the book can tell
+	 * when its indexes need rebuilding.
+	 */
+	private static final class ContactList extends AbstractList<Contact> implements RandomAccess {
+		private final ArrayList<Contact> elements = new ArrayList<>();
+		private int changes;
+
+		@Override
+		public Contact get(int index) {
+			return elements.get(index);
+		}
+
+		@Override
+		public int size() {
+			return elements.size();
+		}
+
+		@Override
+		public Contact set(int index, Contact contact) {
+			changes++;
+			return elements.set(index, contact);
+		}
+
+		@Override
+		public void add(int index, Contact contact) {
+			changes++;
+			modCount++;
+			elements.add(index, contact);
+		}
+
+		@Override
+		public Contact remove(int index) {
+			changes++;
+			modCount++;
+			return elements.remove(index);
+		}
+
+		@Override
+		protected void removeRange(int fromIndex, int toIndex) {
+			changes++;
+			modCount++;
+			elements.subList(fromIndex, toIndex).clear();
+		}
+
+		void ensureCapacity(int capacity) {
+			elements.ensureCapacity(capacity);
+		}
+	}
 }
\ No newline at end of file
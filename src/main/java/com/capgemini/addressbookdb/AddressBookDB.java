@@ -1,43 +1,102 @@
 package com.capgemini.addressbookdb;
 
-import java.sql.Connection;
 import java.sql.Date;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 public class AddressBookDB {
-	private static PreparedStatement contactStatement;
+	private static final Logger LOG = LogManager.getLogger(AddressBookDB.class);
+	private static final String READ_CONTACTS_SQL = "select * from contact_table c inner join addressbookjoin j "
+			+ "on j.contact_id = c.contact_id inner join addressbook a on a.add_id = j.add_id";
+	private static final String CONTACT_BY_NAME_SQL = "SELECT * FROM contact_table WHERE fname = ?";
+	private static final String CONTACTS_IN_DATE_RANGE_SQL = READ_CONTACTS_SQL + " where date between ? and ?";
+	private static final String CONTACT_COLUMNS = "contact_id, fname, lname, address, zip, city, state, phone, email, date";
+	/**
+	 * Served by the idx_contact_state_city_name index in both filtering and
+	 * ordering, see SchemaMigrator. Ordering by the constant state and city
+	 * first changes nothing in the result but spells out the index order so
+	 * no planner falls back to a filesort.
+	 */
+	public static final String CONTACTS_IN_CITY_AND_STATE_SQL = "select " + CONTACT_COLUMNS
+			+ " from contact_table where state = ? and city = ? order by state, city, fname, lname";
+	private static final String UPDATE_PHONE_SQL = "Update contact_table set phone = ? where fname = ?";
+	private static final String INSERT_CONTACT_SQL = "INSERT INTO contact_table (fname, lname, address, zip, city, state, "
+			+ "phone, email, date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+	private static final String INSERT_CONTACT_BOOK_SQL = "INSERT INTO addressbookjoin (contact_id, add_id) VALUES (?, ?)";
+	private static final String CONTACTS_BY_NAMES_SQL = "SELECT " + CONTACT_COLUMNS
+			+ " FROM contact_table WHERE fname IN (";
+	/**
+	 * Names bound per IN list, far below the 65535 placeholders MySQL allows
+	 * in one prepared statement
+	 */
+	private static final int MAX_IN_LIST_SIZE = 8192;
+	private static final String CONTACTS_MODIFIED_SINCE_SQL = READ_CONTACTS_SQL
+			+ " where c.last_modified > ? order by c.last_modified";
+	private static final String ID_SEEK = "(c.contact_id > ? or (c.contact_id = ? and j.add_id > ?))";
+	private static final String ID_PAGE_ORDER = " order by c.contact_id, j.add_id limit ?";
+	private static final String READ_FIRST_PAGE_SQL = READ_CONTACTS_SQL + ID_PAGE_ORDER;
+	private static final String READ_NEXT_PAGE_SQL = READ_CONTACTS_SQL + " where " + ID_SEEK + ID_PAGE_ORDER;
+	private static final String DATE_RANGE_FIRST_PAGE_SQL = CONTACTS_IN_DATE_RANGE_SQL + ID_PAGE_ORDER;
+	private static final String DATE_RANGE_NEXT_PAGE_SQL = CONTACTS_IN_DATE_RANGE_SQL + " and " + ID_SEEK
+			+ ID_PAGE_ORDER;
+	private static final String CITY_STATE_PAGE_SQL = "select " + CONTACT_COLUMNS
+			+ " from contact_table where state = ? and city = ?";
+	private static final String NAME_PAGE_ORDER = " order by state, city, fname, lname, contact_id limit ?";
+	private static final String CITY_STATE_FIRST_PAGE_SQL = CITY_STATE_PAGE_SQL + NAME_PAGE_ORDER;
+	private static final String CITY_STATE_NEXT_PAGE_SQL = CITY_STATE_PAGE_SQL
+			+ " and (fname > ? or (fname = ? and (lname > ? or (lname = ? and contact_id > ?))))" + NAME_PAGE_ORDER;
 	private static AddressBookDB addressBookDB;
+	private final ConnectionPool connectionPool;
 
 	public AddressBookDB() {
+		this(createDefaultPool());
+	}
+
+	public AddressBookDB(ConnectionPool connectionPool) {
+		this.connectionPool = connectionPool;
 	}
 
-	public static AddressBookDB getInstance() {
+	public static synchronized AddressBookDB getInstance() {
 		if (addressBookDB == null) {
 			addressBookDB = new AddressBookDB();
 		}
 		return addressBookDB;
 	}
 
-	private Connection getConnection() throws DatabaseException {
-		String jdbcURL = "jdbc:mysql://localhost:3306/addressBookService?useSSL=false";
-		String userName = "root";
-		String password = "Jan1998ad";
-		Connection connection = null;
+	private static ConnectionPool createDefaultPool() {
 		try {
-			Class.forName("com.mysql.jdbc.Driver");
-			connection = DriverManager.getConnection(jdbcURL, userName, password);
-		} catch (Exception e) {
-			throw new DatabaseException("Connection was unsuccessful");
+			return new ConnectionPool(ConnectionPoolConfig.fromProperties(System.getProperties()));
+		} catch (DatabaseException e) {
+			throw new IllegalStateException(e.getMessage(), e);
 		}
-		return connection;
+	}
+
+	public ConnectionPool getConnectionPool() {
+		return connectionPool;
+	}
 
+	private PooledConnection getConnection() throws DatabaseException {
+		return (PooledConnection) connectionPool.getConnection();
 	}
 	/**
 	 * Usecase16: Retrieve data from the database
@@ -46,17 +105,22 @@ public class AddressBookDB {
 	 * @throws DatabaseException
 	 */
 	public List<Contact> readData() throws DatabaseException {
-		String sql = "select * from contact_table inner join addressbookjoin using (contact_id) inner join addressbook using(add_id);";
-		return this.getContactData(sql);
+		return Metrics.time("db.readData", () -> this.getContactData(READ_CONTACTS_SQL));
 	}
 
-	List<Contact> getContactData(String sql) throws DatabaseException {
-		List<Contact> contactList = new ArrayList<>();
-		try (Connection connection = this.getConnection()) {
-			Statement statement = connection.createStatement();
-			ResultSet resultSet = statement.executeQuery(sql);
-			contactList = this.getContactData(resultSet);
-			return contactList;
+	/**
+	 * Runs a query through the statement cache of the borrowed connection,
+	 * binding the given parameters in order
+	 */
+	List<Contact> getContactData(String sql, Object... parameters) throws DatabaseException {
+		try (PooledConnection connection = this.getConnection()) {
+			PreparedStatement statement = connection.prepareCached(sql);
+			for (int i = 0; i < parameters.length; i++) {
+				statement.setObject(i + 1, parameters[i]);
+			}
+			try (ResultSet resultSet = statement.executeQuery()) {
+				return this.getContactData(resultSet);
+			}
 		} catch (SQLException e) {
 			throw new DatabaseException("Unable to retrieve data");
 		}
@@ -68,17 +132,69 @@ public class AddressBookDB {
 	 * @throws SQLException
 	 */
 	public int updatePersonsData(String name, long phone) throws DatabaseException, SQLException {
-		return this.updatePersonsDataUsingStatement(name, phone);
+		return Metrics.time("db.updatePersonsData", () -> this.updatePersonsDataUsingStatement(name, phone));
 	}
 
-	private int updatePersonsDataUsingStatement(String name, long phone) throws DatabaseException, SQLException {
-		String sql = "Update contact_table set phone = ? where fname = ?";
-		int result = 0;
-		if (this.contactStatement == null) {
-			Connection connection = this.getConnection();
-			contactStatement = connection.prepareStatement(sql);
+	/**
+	 * Updates the phone numbers of many persons with batched executions of the
+	 * parameterized update, committing once per chunk
+	 * 
+	 * @param phoneByName new phone number keyed by first name
+	 * @param chunkSize   updates per batch and per transaction
+	 * @return rows affected for every name, in the iteration order of the map
+	 * @throws PartialUpdateException when a chunk fails, carrying the rows of
+	 *                                the chunks committed before it
+	 * @throws DatabaseException
+	 */
+	public Map<String, Integer> updatePersonsData(Map<String, Long> phoneByName, int chunkSize)
+			throws DatabaseException {
+		return Metrics.time("db.updatePersonsDataBatch", () -> this.updatePersonsDataInBatches(phoneByName, chunkSize));
+	}
+
+	private Map<String, Integer> updatePersonsDataInBatches(Map<String, Long> phoneByName, int chunkSize)
+			throws DatabaseException {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("Chunk size must be positive");
 		}
-		try {
+		Map<String, Integer> affectedRows = new LinkedHashMap<>();
+		List<Map.Entry<String, Long>> entries = new ArrayList<>(phoneByName.entrySet());
+		try (PooledConnection connection = this.getConnection()) {
+			connection.setAutoCommit(false);
+			PreparedStatement statement = connection.prepareCached(UPDATE_PHONE_SQL);
+			try {
+				for (int from = 0; from < entries.size(); from += chunkSize) {
+					List<Map.Entry<String, Long>> chunk = entries.subList(from,
+							Math.min(from + chunkSize, entries.size()));
+					for (Map.Entry<String, Long> entry : chunk) {
+						statement.setLong(1, entry.getValue());
+						statement.setString(2, entry.getKey());
+						statement.addBatch();
+					}
+					int[] counts = statement.executeBatch();
+					connection.commit();
+					for (int i = 0; i < counts.length; i++) {
+						affectedRows.put(chunk.get(i).getKey(), counts[i]);
+					}
+				}
+			} catch (SQLException e) {
+				connection.rollback();
+				throw e;
+			} finally {
+				// the statement stays cached on the connection, so rows of a
+				// failed batch must not reach its next borrower
+				statement.clearBatch();
+			}
+		} catch (SQLException e) {
+			throw new PartialUpdateException("Unable to execute the batched update on contact_table after "
+					+ affectedRows.size() + " of " + entries.size() + " names: " + e.getMessage(), affectedRows);
+		}
+		return affectedRows;
+	}
+
+	private int updatePersonsDataUsingStatement(String name, long phone) throws DatabaseException {
+		int result = 0;
+		try (PooledConnection connection = this.getConnection()) {
+			PreparedStatement contactStatement = connection.prepareCached(UPDATE_PHONE_SQL);
 			contactStatement.setLong(1, phone);
 			contactStatement.setString(2, name);
 			result = contactStatement.executeUpdate();
@@ -90,31 +206,172 @@ public class AddressBookDB {
 
 	private List<Contact> getContactData(ResultSet resultSet) throws SQLException {
 		List<Contact> contactList = new ArrayList<>();
+		ContactRowMapper mapper = new ContactRowMapper(resultSet);
 		while (resultSet.next()) {
-			String fname = resultSet.getString("fname");
-			String lname = resultSet.getString("lname");
-			String address = resultSet.getString("address");
-			long zip = resultSet.getLong("zip");
-			String city = resultSet.getString("city");
-			String state = resultSet.getString("state");
-			long phoneNumber = resultSet.getLong("phone");
-			String email = resultSet.getString("email");
-			contactList.add(new Contact(fname, lname, address, state, city, zip, phoneNumber, email));
+			contactList.add(mapper.map(resultSet));
 		}
 		return contactList;
 	}
 
+	/**
+	 * Streams every contact of the address books without buffering the result.
+	 * The rows are fetched with the driver's streaming fetch size and the
+	 * connection goes back to the pool once the stream is exhausted or closed,
+	 * callers that may stop early should use try-with-resources.
+	 * 
+	 * @throws DatabaseException
+	 */
+	public Stream<Contact> streamData() throws DatabaseException {
+		return Metrics.time("db.streamData", () -> this.streamContactData(READ_CONTACTS_SQL));
+	}
+
+	/**
+	 * Callback variant of {@link #streamData()} for exports and sync jobs
+	 * 
+	 * @throws DatabaseException
+	 */
+	public void readData(Consumer<Contact> consumer) throws DatabaseException {
+		Metrics.run("db.readDataStreaming", () -> {
+			try (Stream<Contact> contacts = this.streamData()) {
+				contacts.forEach(consumer);
+			} catch (UncheckedDatabaseException e) {
+				throw e.getCause();
+			}
+		});
+	}
+
+	Stream<Contact> streamContactData(String sql, Object... parameters) throws DatabaseException {
+		PooledConnection connection = this.getConnection();
+		try {
+			PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+					ResultSet.CONCUR_READ_ONLY);
+			statement.setFetchSize(this.streamingFetchSize());
+			for (int i = 0; i < parameters.length; i++) {
+				statement.setObject(i + 1, parameters[i]);
+			}
+			ResultSet resultSet = statement.executeQuery();
+			ContactCursor cursor = new ContactCursor(connection, statement, resultSet);
+			return StreamSupport.stream(cursor, false).onClose(cursor::close);
+		} catch (SQLException e) {
+			try {
+				connection.close();
+			} catch (SQLException exception) {
+				LOG.warn("Unable to release the connection of a failed stream", exception);
+			}
+			throw new DatabaseException("Unable to stream data");
+		}
+	}
+
+	private int streamingFetchSize() {
+		ConnectionPoolConfig config = connectionPool.getConfig();
+		if (config.getStreamingFetchSize() != 0) {
+			return config.getStreamingFetchSize();
+		}
+		// Connector/J only streams row by row when asked for Integer.MIN_VALUE
+		return config.getJdbcURL().startsWith("jdbc:mysql:") ? Integer.MIN_VALUE : 1000;
+	}
+
+	/**
+	 * Forward-only cursor behind the contact streams, it releases the result
+	 * set, statement and connection as soon as the last row has been read
+	 */
+	private static class ContactCursor extends Spliterators.AbstractSpliterator<Contact> {
+		private final PooledConnection connection;
+		private final PreparedStatement statement;
+		private final ResultSet resultSet;
+		private final ContactRowMapper mapper;
+		private boolean closed;
+
+		ContactCursor(PooledConnection connection, PreparedStatement statement, ResultSet resultSet)
+				throws SQLException {
+			super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+			this.connection = connection;
+			this.statement = statement;
+			this.resultSet = resultSet;
+			this.mapper = new ContactRowMapper(resultSet);
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super Contact> action) {
+			if (closed) {
+				return false;
+			}
+			try {
+				if (!resultSet.next()) {
+					close();
+					return false;
+				}
+				action.accept(mapper.map(resultSet));
+				return true;
+			} catch (SQLException e) {
+				close();
+				throw new UncheckedDatabaseException(new DatabaseException("Unable to read the next contact"));
+			}
+		}
+
+		void close() {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			closeQuietly(resultSet);
+			closeQuietly(statement);
+			closeQuietly(connection);
+		}
+
+		private static void closeQuietly(AutoCloseable resource) {
+			try {
+				resource.close();
+			} catch (Exception e) {
+				LOG.warn("Unable to close " + resource, e);
+			}
+		}
+	}
+
 	public List<Contact> getContactFromData(String name) throws DatabaseException {
-		String sql = String.format("SELECT * FROM contact_table WHERE fname = '%s'", name);
-		List<Contact> contactList = new ArrayList<>();
-		try (Connection connection = this.getConnection()) {
-			Statement statement = connection.createStatement();
-			ResultSet resultSet = statement.executeQuery(sql);
-			contactList = this.getContactData(resultSet);
+		try {
+			return Metrics.time("db.getContactFromData", () -> this.getContactData(CONTACT_BY_NAME_SQL, name));
+		} catch (DatabaseException e) {
+			throw new DatabaseException("Unable to retrieve data from the contact_table");
+		}
+	}
+
+	/**
+	 * Reads the contacts with any of the given first names in one round trip
+	 * for up to 8192 distinct names. The IN list is padded to the next power
+	 * of two by repeating the last name, so only a few statement shapes end
+	 * up in the statement cache.
+	 * 
+	 * @throws DatabaseException
+	 */
+	public List<Contact> getContactsByFirstNames(Collection<String> names) throws DatabaseException {
+		return Metrics.time("db.getContactsByFirstNames", () -> this.readContactsByFirstNames(names));
+	}
+
+	private List<Contact> readContactsByFirstNames(Collection<String> names) throws DatabaseException {
+		List<String> distinctNames = new ArrayList<>(new LinkedHashSet<>(names));
+		List<Contact> contacts = new ArrayList<>();
+		if (distinctNames.isEmpty()) {
+			return contacts;
+		}
+		try (PooledConnection connection = this.getConnection()) {
+			for (int from = 0; from < distinctNames.size(); from += MAX_IN_LIST_SIZE) {
+				List<String> chunk = distinctNames.subList(from,
+						Math.min(from + MAX_IN_LIST_SIZE, distinctNames.size()));
+				int placeholders = Integer.highestOneBit(chunk.size() * 2 - 1);
+				PreparedStatement statement = connection.prepareCached(CONTACTS_BY_NAMES_SQL
+						+ String.join(", ", Collections.nCopies(placeholders, "?")) + ")");
+				for (int i = 0; i < placeholders; i++) {
+					statement.setString(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+				}
+				try (ResultSet resultSet = statement.executeQuery()) {
+					contacts.addAll(this.getContactData(resultSet));
+				}
+			}
 		} catch (SQLException e) {
 			throw new DatabaseException("Unable to retrieve data from the contact_table");
 		}
-		return contactList;
+		return contacts;
 	}
 
 	/**
@@ -126,10 +383,8 @@ public class AddressBookDB {
 	 * @throws DatabaseException
 	 */
 	public List<Contact> getContactForDateRange(LocalDate start, LocalDate end) throws DatabaseException {
-		String sql = String.format("select * from contact_table inner join addressbookjoin using (contact_id) inner join addressbook "
-                                   + "using(add_id) where date between '%s' and '%s'",
-                                   Date.valueOf(start), Date.valueOf(end));
-		return this.getContactData(sql);
+		return Metrics.time("db.getContactForDateRange",
+				() -> this.getContactData(CONTACTS_IN_DATE_RANGE_SQL, Date.valueOf(start), Date.valueOf(end)));
 	}
 
 	/**
@@ -141,9 +396,131 @@ public class AddressBookDB {
 	 * @throws DatabaseException
 	 */
 	public List<Contact> getContactForCityAndState(String city, String state) throws DatabaseException {
-		String sql = String.format("select * from contact_table where city = 'Akola' order by fname,lname;", city,
-				state);
-		return this.getContactData(sql);
+		return Metrics.time("db.getContactForCityAndState",
+				() -> this.getContactData(CONTACTS_IN_CITY_AND_STATE_SQL, state, city));
+	}
+
+	/**
+	 * Reads one page of all address book contacts ordered by contact id,
+	 * seeking past the previous page instead of skipping rows with OFFSET
+	 * 
+	 * @param token    continuation token of the previous page, null for the
+	 *                 first page
+	 * @param pageSize
+	 * @throws DatabaseException
+	 */
+	public ContactPage readPage(String token, int pageSize) throws DatabaseException {
+		if (token == null) {
+			return this.getContactPage("db.readPage", last -> idToken("all", last), pageSize,
+					READ_FIRST_PAGE_SQL);
+		}
+		String[] key = ContactPage.decodeToken("all", 2, token);
+		return this.getContactPage("db.readPage", last -> idToken("all", last), pageSize, READ_NEXT_PAGE_SQL,
+				Integer.valueOf(key[0]), Integer.valueOf(key[0]), Integer.valueOf(key[1]));
+	}
+
+	/**
+	 * Change data capture read: every contact whose last_modified stamp (see
+	 * the V2 migration) is after the given mark. The returned mark is
+	 * the newest stamp seen, or the given one when nothing changed.
+	 * <p>
+	 * Only writes to contact_table move the stamp. Book memberships in
+	 * addressbookjoin are written by this class only together with a new
+	 * contact, in the transaction that stamps it. A membership added to or
+	 * removed from an existing contact by any other path is not seen here
+	 * unless that path also updates the contact's last_modified in the same
+	 * transaction.
+	 * 
+	 * @param since
+	 * @throws DatabaseException
+	 */
+	public ContactChangeSet getContactsModifiedSince(Timestamp since) throws DatabaseException {
+		return Metrics.time("db.getContactsModifiedSince", () -> this.readContactsModifiedSince(since));
+	}
+
+	private ContactChangeSet readContactsModifiedSince(Timestamp since) throws DatabaseException {
+		List<Contact> contacts = new ArrayList<>();
+		Timestamp highWaterMark = since;
+		try (PooledConnection connection = this.getConnection()) {
+			PreparedStatement statement = connection.prepareCached(CONTACTS_MODIFIED_SINCE_SQL);
+			statement.setTimestamp(1, since);
+			try (ResultSet resultSet = statement.executeQuery()) {
+				ContactRowMapper mapper = new ContactRowMapper(resultSet);
+				int lastModified = resultSet.findColumn("last_modified");
+				while (resultSet.next()) {
+					contacts.add(mapper.map(resultSet));
+					Timestamp modified = resultSet.getTimestamp(lastModified);
+					if (modified.after(highWaterMark)) {
+						highWaterMark = modified;
+					}
+				}
+			}
+		} catch (SQLException e) {
+			throw new DatabaseException("Unable to read the changed contacts, the last_modified column needs the "
+					+ "V2 migration (SchemaMigrator): " + e.getMessage());
+		}
+		return new ContactChangeSet(contacts, highWaterMark);
+	}
+
+	/**
+	 * Keyset paginated variant of {@link #getContactForDateRange(LocalDate, LocalDate)}
+	 * 
+	 * @throws DatabaseException
+	 */
+	public ContactPage getContactForDateRangePage(LocalDate start, LocalDate end, String token, int pageSize)
+			throws DatabaseException {
+		if (token == null) {
+			return this.getContactPage("db.getContactForDateRangePage", last -> idToken("dateRange", last),
+					pageSize, DATE_RANGE_FIRST_PAGE_SQL, Date.valueOf(start), Date.valueOf(end));
+		}
+		String[] key = ContactPage.decodeToken("dateRange", 2, token);
+		return this.getContactPage("db.getContactForDateRangePage", last -> idToken("dateRange", last), pageSize,
+				DATE_RANGE_NEXT_PAGE_SQL, Date.valueOf(start), Date.valueOf(end), Integer.valueOf(key[0]),
+				Integer.valueOf(key[0]), Integer.valueOf(key[1]));
+	}
+
+	/**
+	 * Keyset paginated contacts of a city, ordered by name. The seek follows
+	 * the (state, city, fname, lname) index order.
+	 * 
+	 * @throws DatabaseException
+	 */
+	public ContactPage getContactForCityAndStatePage(String city, String state, String token, int pageSize)
+			throws DatabaseException {
+		if (token == null) {
+			return this.getContactPage("db.getContactForCityAndStatePage", AddressBookDB::nameToken, pageSize,
+					CITY_STATE_FIRST_PAGE_SQL, state, city);
+		}
+		String[] key = ContactPage.decodeToken("cityState", 3, token);
+		return this.getContactPage("db.getContactForCityAndStatePage", AddressBookDB::nameToken, pageSize,
+				CITY_STATE_NEXT_PAGE_SQL, state, city, key[0], key[0], key[1], key[1], Integer.valueOf(key[2]));
+	}
+
+	/**
+	 * Fetches one row more than the page size to learn whether another page
+	 * follows, the token is built from the last contact kept on the page
+	 */
+	private ContactPage getContactPage(String operation, Function<Contact, String> tokenOf, int pageSize,
+			String sql, Object... parameters) throws DatabaseException {
+		if (pageSize < 1) {
+			throw new IllegalArgumentException("Page size must be positive");
+		}
+		Object[] boundParameters = Arrays.copyOf(parameters, parameters.length + 1);
+		boundParameters[parameters.length] = pageSize + 1;
+		List<Contact> contacts = Metrics.time(operation, () -> this.getContactData(sql, boundParameters));
+		if (contacts.size() <= pageSize) {
+			return new ContactPage(contacts, null);
+		}
+		contacts.remove(pageSize);
+		return new ContactPage(contacts, tokenOf.apply(contacts.get(pageSize - 1)));
+	}
+
+	private static String idToken(String query, Contact last) {
+		return ContactPage.encodeToken(query, String.valueOf(last.id), String.valueOf(last.addId));
+	}
+
+	private static String nameToken(Contact last) {
+		return ContactPage.encodeToken("cityState", last.firstName, last.lastName, String.valueOf(last.id));
 	}
 
 	/**
@@ -167,57 +544,199 @@ public class AddressBookDB {
 	public Contact addContact(String fname, String lname, String address, long zip, String city, String state,
 			long phone, String email, LocalDate date,int addId)
 			throws com.capgemini.addressbookdb.DatabaseException, SQLException {
+		return Metrics.time("db.addContact",
+				() -> this.insertContact(fname, lname, address, zip, city, state, phone, email, date, addId));
+	}
+
+	private Contact insertContact(String fname, String lname, String address, long zip, String city, String state,
+			long phone, String email, LocalDate date, int addId) throws DatabaseException {
 		int contactId = -1;
-		Connection connection = null;
+		PooledConnection connection = null;
 		Contact contact = null;
 		try {
 			connection = this.getConnection();
 			connection.setAutoCommit(false);
 		} catch (SQLException e) {
+			release(connection);
 			throw new DatabaseException("Unable to establish connection with database");
 		}
-		try (Statement statement = connection.createStatement()) {
-			String sql = String.format("INSERT INTO contact_table (fname, lname, address,zip,city,state,phone,email,date) "
-                                       + "VALUES ('%s','%s','%s','%s','%s','%s','%s','%s','%s')",
-                                       fname, lname, address, zip, city, state, phone, email, date);
-			int rowAffected = statement.executeUpdate(sql, statement.RETURN_GENERATED_KEYS);
+		try {
+			PreparedStatement statement = connection.prepareCached(INSERT_CONTACT_SQL, Statement.RETURN_GENERATED_KEYS);
+			statement.setString(1, fname);
+			statement.setString(2, lname);
+			statement.setString(3, address);
+			statement.setLong(4, zip);
+			statement.setString(5, city);
+			statement.setString(6, state);
+			statement.setLong(7, phone);
+			statement.setString(8, email);
+			statement.setDate(9, date == null ? null : Date.valueOf(date));
+			int rowAffected = statement.executeUpdate();
 			if (rowAffected == 1) {
-				ResultSet resultSet = statement.getGeneratedKeys();
-				if (resultSet.next())
-					contactId = resultSet.getInt(1);
+				try (ResultSet resultSet = statement.getGeneratedKeys()) {
+					if (resultSet.next())
+						contactId = resultSet.getInt(1);
+				}
 			}
 		} catch (SQLException e) {
-			try {
-				connection.rollback();
-			} catch (SQLException exception) {
-				exception.printStackTrace();
-			}
+			rollbackAndRelease(connection);
 			throw new DatabaseException("Unable to add new contact");
 		}
-		try (Statement statement = connection.createStatement()) {
-			String sql = String.format("INSERT INTO addressbookjoin (contact_id, add_id) " + "VALUES ('%s','%s')",contactId,addId);
-			int rowAffected = statement.executeUpdate(sql);
+		try {
+			PreparedStatement statement = connection.prepareCached(INSERT_CONTACT_BOOK_SQL);
+			statement.setInt(1, contactId);
+			statement.setInt(2, addId);
+			int rowAffected = statement.executeUpdate();
 			if (rowAffected == 1) {
 				contact = new Contact(contactId,fname, lname, address, city, state,zip, phone,
 						email,date);
 			}
 		} catch (SQLException e) {
-			try {
-				connection.rollback();
-			} catch (SQLException exception) {
-				exception.printStackTrace();
-			}
+			rollbackAndRelease(connection);
 			throw new DatabaseException("Unable to add addressBook details");
 		}
 		try {
 			connection.commit();
 		} catch (SQLException e) {
-			e.printStackTrace();
+			LOG.warn("Unable to commit the new contact " + fname + " " + lname, e);
 		} finally {
-			if (connection != null) {
-				connection.close();
-			}
+			release(connection);
 		}
 		return contact;
 	}
+
+	private static void rollbackAndRelease(PooledConnection connection) {
+		try {
+			connection.rollback();
+		} catch (SQLException e) {
+			LOG.warn("Unable to roll back", e);
+		}
+		release(connection);
+	}
+
+	private static void release(PooledConnection connection) {
+		try {
+			connection.close();
+		} catch (SQLException e) {
+			LOG.warn("Unable to release the connection", e);
+		}
+	}
+
+	/**
+	 * Bulk load of contacts using JDBC batches. Every chunk is inserted into
+	 * contact_table and addressbookjoin with one batch each and committed as
+	 * a single transaction. When a chunk fails it is rolled back and replayed
+	 * row by row so only the offending rows are reported as failures. When
+	 * the connection itself fails, the rows not yet written are reported as
+	 * failures and the load stops; rows already committed stay in the result.
+	 *
+	 * @param contacts
+	 * @param chunkSize rows per batch and per transaction
+	 * @return added contacts with their generated ids and the rejected rows
+	 * @throws DatabaseException
+	 */
+	public BulkLoadResult addContacts(List<Contact> contacts, int chunkSize) throws DatabaseException {
+		return Metrics.time("db.addContacts", () -> this.addContactsInChunks(contacts, chunkSize));
+	}
+
+	private BulkLoadResult addContactsInChunks(List<Contact> contacts, int chunkSize) throws DatabaseException {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("Chunk size must be positive");
+		}
+		BulkLoadResult result = new BulkLoadResult();
+		int written = 0;
+		try {
+			for (int from = 0; from < contacts.size(); from += chunkSize) {
+				List<Contact> chunk = contacts.subList(from, Math.min(from + chunkSize, contacts.size()));
+				try (PooledConnection connection = this.getConnection()) {
+					connection.setAutoCommit(false);
+					try {
+						List<Contact> added = this.insertContacts(connection, chunk);
+						connection.commit();
+						result.added(added);
+						written += chunk.size();
+					} catch (SQLException e) {
+						connection.rollback();
+						for (Contact contact : chunk) {
+							this.insertSingleContact(connection, contact, result);
+							written++;
+						}
+					}
+				}
+			}
+		} catch (SQLException | DatabaseException e) {
+			LOG.warn("Bulk load stopped after " + written + " of " + contacts.size() + " contacts", e);
+			for (Contact contact : contacts.subList(written, contacts.size())) {
+				result.failed(contact, "Unable to add contacts in bulk: " + e.getMessage());
+			}
+		}
+		return result;
+	}
+
+	private void insertSingleContact(PooledConnection connection, Contact contact, BulkLoadResult result)
+			throws SQLException {
+		try {
+			List<Contact> added = this.insertContacts(connection, Collections.singletonList(contact));
+			connection.commit();
+			result.added(added);
+		} catch (SQLException e) {
+			connection.rollback();
+			result.failed(contact, e.getMessage());
+		}
+	}
+
+	private List<Contact> insertContacts(PooledConnection connection, List<Contact> chunk) throws SQLException {
+		PreparedStatement contactStatement = connection.prepareCached(INSERT_CONTACT_SQL,
+				Statement.RETURN_GENERATED_KEYS);
+		PreparedStatement bookStatement = connection.prepareCached(INSERT_CONTACT_BOOK_SQL);
+		try {
+			return this.insertContacts(contactStatement, bookStatement, chunk);
+		} finally {
+			// a failed chunk is replayed on the same cached statements
+			contactStatement.clearBatch();
+			bookStatement.clearBatch();
+		}
+	}
+
+	private List<Contact> insertContacts(PreparedStatement contactStatement, PreparedStatement bookStatement,
+			List<Contact> chunk) throws SQLException {
+		for (Contact contact : chunk) {
+			contactStatement.setString(1, contact.firstName);
+			contactStatement.setString(2, contact.lastName);
+			contactStatement.setString(3, contact.address);
+			contactStatement.setLong(4, contact.zip);
+			contactStatement.setString(5, contact.city);
+			contactStatement.setString(6, contact.state);
+			contactStatement.setLong(7, contact.phoneNumber);
+			contactStatement.setString(8, contact.email);
+			contactStatement.setDate(9, contact.date == null ? null : Date.valueOf(contact.date));
+			contactStatement.addBatch();
+		}
+		contactStatement.executeBatch();
+		int[] contactIds = new int[chunk.size()];
+		int keys = 0;
+		try (ResultSet resultSet = contactStatement.getGeneratedKeys()) {
+			while (resultSet.next() && keys < contactIds.length) {
+				contactIds[keys++] = resultSet.getInt(1);
+			}
+		}
+		if (keys != chunk.size()) {
+			throw new SQLException("Expected " + chunk.size() + " generated keys but received " + keys);
+		}
+		for (int i = 0; i < chunk.size(); i++) {
+			bookStatement.setInt(1, contactIds[i]);
+			bookStatement.setInt(2, chunk.get(i).addId);
+			bookStatement.addBatch();
+		}
+		bookStatement.executeBatch();
+		List<Contact> added = new ArrayList<>(chunk.size());
+		for (int i = 0; i < chunk.size(); i++) {
+			Contact contact = chunk.get(i);
+			Contact addedContact = new Contact(contactIds[i], contact.firstName, contact.lastName, contact.address,
+					contact.city, contact.state, contact.zip, contact.phoneNumber, contact.email, contact.date);
+			addedContact.addId = contact.addId;
+			added.add(addedContact);
+		}
+		return added;
+	}
 }
@@ -4,33 +4,32 @@ import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class AddressBookMain {
 	public static Map<String, AddressBook> cityBookMap;
 	public static Map<String, Map<String, AddressBook>> stateBookMap;
+	public static ContactIndex contactIndex;
 	static Scanner scanner = new Scanner(System.in);
 
 	public AddressBookMain() {
 		cityBookMap = new HashMap<>();
 		stateBookMap = new HashMap<>();
+		contactIndex = new ContactIndex();
 	}
 
 	public void addData() {
 		String option1, option2, option3;
 		do {
 			System.out.println("Enter the name of state");
-			String stateForMap = scanner.nextLine();
+			String stateForMap = StringDictionary.STATES.canonical(scanner.nextLine());
 			do {
 				System.out.println("Enter the name of city");
-				String cityForMap = scanner.nextLine();
-				AddressBook addBook = new AddressBook(cityForMap);
-				for (Map.Entry<String, AddressBook> entry : cityBookMap.entrySet()) {
-					if (entry.getKey().equals(cityForMap)) {
-						addBook = entry.getValue();
-					}
-				}
-				cityBookMap.put(cityForMap, addBook);
+				String cityForMap = StringDictionary.CITIES.canonical(scanner.nextLine());
+				cityBookMap.computeIfAbsent(cityForMap, key -> {
+					AddressBook book = new AddressBook(key, contactIndex);
+					book.enableSortedViews();
+					return book;
+				});
 				do {
 					System.out.println("Enter the details of person");
 					System.out.println("Enter the first name");
@@ -69,40 +68,23 @@ public class AddressBookMain {
 	}
 
 	public void searchPersonByCity(String name, String city) {
-		List<Contact> list = new ArrayList<Contact>();
-		for (Map.Entry<String, AddressBook> entry : cityBookMap.entrySet()) {
-			List<Contact> tempList = entry.getValue().getContactList().stream()
-					.filter(c -> c.getCity().equalsIgnoreCase(city))
-					.filter(c -> (c.getFirstName() + " " + c.getLastName()).equals(name)).collect(Collectors.toList());
-			list.addAll(tempList); // Adding the temporary list data from streams to List
-		}
-		for (Contact c : list) {
-			System.out.println(c);
+		for (Contact c : contactIndex.getByCity(city)) {
+			if (ContactIndex.matchesFullName(c, name, false)) {
+				System.out.println(c);
+			}
 		}
 	}
 
 	public void searchPersonByState(String name, String state) {
-		List<Contact> list = new ArrayList<Contact>();
-		for (Map.Entry<String, AddressBook> entry : cityBookMap.entrySet()) {
-			List<Contact> tempList = entry.getValue().getContactList().stream()
-					.filter(c -> c.getState().equalsIgnoreCase(state))
-					.filter(c -> (c.getFirstName() + " " + c.getLastName()).equalsIgnoreCase(name))
-					.collect(Collectors.toList());
-			list.addAll(tempList); // Adding the temporary list data from streams to List
-		}
-		for (Contact c : list) {
-			System.out.println(c);
+		for (Contact c : contactIndex.getByState(state)) {
+			if (ContactIndex.matchesFullName(c, name, true)) {
+				System.out.println(c);
+			}
 		}
 	}
 
 	public void viewDataByCity(String city) {
-		List<Contact> list = new ArrayList<Contact>();
-		for (Map.Entry<String, AddressBook> entry : cityBookMap.entrySet()) {
-			List<Contact> tempList = entry.getValue().getContactList().stream()
-					.filter(c -> c.getCity().equalsIgnoreCase(city)).collect(Collectors.toList());
-			list.addAll(tempList);
-		}
-		for (Contact c : list) {
+		for (Contact c : contactIndex.getByCity(city)) {
 			System.out.println(c);
 		}
 	}
@@ -120,33 +102,23 @@ public class AddressBookMain {
 	}
 
 	public void countByCity(String city) {
-		long count = 0;
-		for (Map.Entry<String, AddressBook> entry : cityBookMap.entrySet()) {
-			count = count + entry.getValue().getContactList().stream().filter(c -> c.getCity().equalsIgnoreCase(city))
-					.count(); // incrementing the count for counting in city
-		}
-		System.out.println("count is " + count);
+		System.out.println("count is " + contactIndex.countByCity(city));
 	}
 
 	public void countByState(String state) {
-		long count = 0;
-		for (Map.Entry<String, AddressBook> entry : cityBookMap.entrySet()) {
-			count = count + entry.getValue().getContactList().stream().filter(c -> c.getState().equalsIgnoreCase(state))
-					.count(); // incrementing the count for counting in state
-		}
-		System.out.println("count is " + count);
+		System.out.println("count is " + contactIndex.countByState(state));
 	}
 
 	public void sortByName() {
 		for (Map.Entry<String, AddressBook> entry : cityBookMap.entrySet()) {
-			Collections.sort(entry.getValue().getContactList(), new SortByName());
+			entry.getValue().sortByName();
 		}
 
 	}
 
 	public void sortByZip() {
 		for (Map.Entry<String, AddressBook> entry : cityBookMap.entrySet()) {
-			Collections.sort(entry.getValue().getContactList(), new SortByZip());
+			entry.getValue().sortByZip();
 		}
 	}
 
@@ -174,6 +146,28 @@ public class AddressBookMain {
 		}
 	}
 
+	/**
+	 * Saves the city and state books as a binary snapshot
+	 *
+	 * @throws AddressBookException
+	 */
+	public void saveSnapshot() throws AddressBookException {
+		new AddressBookService().writeSnapshot(cityBookMap, stateBookMap);
+	}
+
+	/**
+	 * Replaces the city and state books with the saved snapshot
+	 *
+	 * @throws AddressBookException
+	 */
+	public void loadSnapshot() throws AddressBookException {
+		ContactIndex loadedIndex = new ContactIndex();
+		AddressBookSnapshot snapshot = new AddressBookService().readSnapshot(loadedIndex);
+		contactIndex = loadedIndex;
+		cityBookMap = snapshot.getCityBookMap();
+		stateBookMap = snapshot.getStateBookMap();
+	}
+
 	@SuppressWarnings("resource")
 	public static void main(String[] args) throws AddressBookException {
 		Scanner scanner = new Scanner(System.in);
@@ -270,12 +264,12 @@ public class AddressBookMain {
 				break;
 			case 15:
 				new AddressBookService().writeDataToCSV(cityBookMap);
-				new AddressBookService().readDataFromCSV();
+				new AddressBookService().readDataFromCSV().forEach(System.out::println);
 				break;
 			case 16:
 				try {
 					new AddressBookService().writeDataToJSON(cityBookMap);
-					new AddressBookService().readDataFromJSON();
+					new AddressBookService().readDataFromJSON().forEach(System.out::println);
 				} catch (IOException e) {
 					e.printStackTrace();
 				}
@@ -1,65 +1,86 @@
 package com.capgemini.addressbookdb;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import com.google.gson.Gson;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonStreamParser;
-import com.opencsv.CSVReader;
-import com.opencsv.CSVWriter;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import com.google.common.collect.Iterables;
 
 public class AddressBookService {
+	private static final Logger LOG = LogManager.getLogger(AddressBookService.class);
 	public static String FILE_NAME = "AddressBook.txt";
 	public static String CSV_FILE = "AddressBook.csv";
 	public static String JSON_FILE = "AddressBook.json";
+	public static String SNAPSHOT_FILE = "AddressBook.snapshot";
+	public static String LOG_FILE = "AddressBook.log";
 
 	public enum IOService {
-		CONSOLE_IO, FILE_IO, DB_IO, REST_IO
+		CONSOLE_IO, FILE_IO, DB_IO, REST_IO, LOG_IO
 	};
 
-	private List<Contact> contactList = new ArrayList<>();
+	private final ContactStore contactStore = new ContactStore();
 	private AddressBookDB addressBookDB;
+	private int bulkLoadChunkSize = 500;
+	private ContactWriteExecutor writeExecutor;
+	private Timestamp syncHighWaterMark;
+	private ContactLog contactLog;
+	private long syncOverlapMillis = 1000;
 
 	public AddressBookService() {
-		addressBookDB = AddressBookDB.getInstance();
+		addressBookDB = CachingAddressBookDB.getCachingInstance();
+	}
+	public AddressBookService(AddressBookDB addressBookDB) {
+		this.addressBookDB = addressBookDB;
 	}
 	public AddressBookService(List<Contact> list) {
 		this();
-		this.contactList = new ArrayList<>(list);
+		this.contactStore.addAll(list);
 	}
 	public void writeData(Map<String, AddressBook> cityBookMap) throws AddressBookException {
-		StringBuffer employeeBuffer = new StringBuffer();
-		for (Map.Entry<String, AddressBook> entry : cityBookMap.entrySet()) {
-			entry.getValue().getContactList().forEach(contact -> {
-				String empString = contact.toString().concat("\n");
-				employeeBuffer.append(empString);
-			});
-		}
-		try {
-			Files.write(Paths.get(FILE_NAME), employeeBuffer.toString().getBytes());
-		} catch (IOException e) {
-			throw new AddressBookException("Unable to write data to the text file");
-		}
+		Metrics.run("io.writeText", () -> {
+			StringBuffer employeeBuffer = new StringBuffer();
+			for (Map.Entry<String, AddressBook> entry : cityBookMap.entrySet()) {
+				entry.getValue().getContactList().forEach(contact -> {
+					String empString = contact.toString().concat("\n");
+					employeeBuffer.append(empString);
+				});
+			}
+			try {
+				Files.write(Paths.get(FILE_NAME), employeeBuffer.toString().getBytes());
+			} catch (IOException e) {
+				throw new AddressBookException("Unable to write data to the text file");
+			}
+		});
 	}
 
 	public void readData() throws AddressBookException {
-		try {
-			Files.lines(new File(FILE_NAME).toPath()).forEach(System.out::println);
-		} catch (IOException e) {
-			throw new AddressBookException("Unable to read data from the text file");
-		}
+		Metrics.run("io.readText", () -> {
+			try {
+				Files.lines(new File(FILE_NAME).toPath()).forEach(System.out::println);
+			} catch (IOException e) {
+				throw new AddressBookException("Unable to read data from the text file");
+			}
+		});
 	}
 
 	/**
@@ -69,84 +90,145 @@ public class AddressBookService {
 	 * @throws AddressBookException 
 	 */
 	public void writeDataToCSV(Map<String, AddressBook> cityBookMap) throws AddressBookException {
-		Path path = Paths.get(CSV_FILE);
-		try {
-			FileWriter outputfile = new FileWriter(path.toFile());
-			CSVWriter writer = new CSVWriter(outputfile);
-			for (Map.Entry<String, AddressBook> entry : cityBookMap.entrySet()) {
-				entry.getValue().getContactList().forEach(contact -> {
-					String[] data = contact.toString().split(",");
-					writer.writeNext(data);
-				});
+		Metrics.run("io.writeCSV", () -> {
+			try {
+				ContactCsvDeltaExport.writeFull(Paths.get(CSV_FILE), cityBookMap);
+			} catch (IOException exception) {
+				throw new AddressBookException("Unable to write data to the csv file");
 			}
-			writer.close();
-		} catch (IOException exception) {
-			throw new AddressBookException("Unable to write data to the csv file");
-		}
+		});
+	}
+
+	/**
+	 * Writes only the contacts changed or deleted since the previous CSV
+	 * export, see {@link ContactCsvDeltaExport}
+	 * 
+	 * @param cityBookMap
+	 * @return number of changed and deleted contacts written
+	 * @throws AddressBookException
+	 */
+	public int writeDeltaToCSV(Map<String, AddressBook> cityBookMap) throws AddressBookException {
+		return Metrics.time("io.writeCSVDelta", () -> {
+			try {
+				return ContactCsvDeltaExport.writeDelta(Paths.get(CSV_FILE), cityBookMap);
+			} catch (IOException e) {
+				throw new AddressBookException("Unable to write the csv delta: " + e.getMessage());
+			}
+		});
+	}
+
+	/**
+	 * Folds the CSV deltas into the full CSV file
+	 * 
+	 * @return number of contacts in the file
+	 * @throws AddressBookException
+	 */
+	public int mergeCSVDeltas() throws AddressBookException {
+		return Metrics.time("io.mergeCSV", () -> {
+			try {
+				return ContactCsvDeltaExport.merge(Paths.get(CSV_FILE));
+			} catch (IOException e) {
+				throw new AddressBookException("Unable to merge the csv deltas: " + e.getMessage());
+			}
+		});
 	}
 
 	/**
-	 * Reading data from the CSV file
+	 * Reading data from the CSV file, with any delta applied
+	 * 
+	 * @return the contacts in file order
 	 * @throws AddressBookException 
 	 */
-	public void readDataFromCSV() throws AddressBookException {
-		try {
-			Reader fileReader = Files.newBufferedReader(Paths.get(CSV_FILE));
-			@SuppressWarnings("resource")
-			CSVReader csvReader = new CSVReader(fileReader);
-			String[] data;
-			while ((data = csvReader.readNext()) != null) {
-				System.out.println("First Name: " + data[0] + " Last Name: " + data[1] + " Address: " + data[2]
-						+ " City: " + data[3] + " State: " + data[4] + " ZIP: " + data[5] + " Phone: " + data[6]
-						+ " Email: " + data[7]);
+	public List<Contact> readDataFromCSV() throws AddressBookException {
+		return Metrics.time("io.readCSV", () -> {
+			try {
+				return ContactCsvDeltaExport.readMerged(Paths.get(CSV_FILE));
+			} catch (IOException e) {
+				throw new AddressBookException("Unable to read data from the csv file: " + e.getMessage());
 			}
-		} catch (IOException e) {
-			throw new AddressBookException("Unable to read data from the csv file");
-		}
+		});
 	}
 
 	/**
-	 * Usecase15 using GSON writing data to JSON file
+	 * Reads a large CSV file with several parser threads, see
+	 * {@link ContactCsvCodec#readParallel}
+	 * 
+	 * @param parallelism
+	 * @return the contacts in file order
+	 * @throws AddressBookException
+	 */
+	public List<Contact> readDataFromCSV(int parallelism) throws AddressBookException {
+		return Metrics.time("io.readCSVParallel", () -> {
+			try {
+				Path csv = Paths.get(CSV_FILE);
+				return ContactCsvDeltaExport.applyDeltas(csv, ContactCsvCodec.readParallel(csv, parallelism));
+			} catch (IOException e) {
+				throw new AddressBookException("Unable to read data from the csv file: " + e.getMessage());
+			}
+		});
+	}
+
+	/**
+	 * Usecase15 using GSON writing data to JSON file as one array
 	 * 
 	 * @param cityBookMap
 	 * @throws IOException
 	 */
 	public void writeDataToJSON(Map<String, AddressBook> cityBookMap) throws IOException {
-		Gson gson = new Gson();
-		Path path = Paths.get(JSON_FILE);
-		FileWriter writer = new FileWriter(path.toFile());
-		for (Map.Entry<String, AddressBook> entry : cityBookMap.entrySet()) {
-			entry.getValue().getContactList().forEach(contact -> {
-				String json = gson.toJson(contact);
-				try {
-					writer.write(json);
-				} catch (IOException e) {
-					System.out.println(e);
-				}
-			});
-		}
-		writer.close();
+		Metrics.run("io.writeJSON", () -> ContactJsonCodec.write(Paths.get(JSON_FILE),
+				Iterables.concat(Iterables.transform(cityBookMap.values(), AddressBook::getContactList))));
 	}
 
 	/**
 	 * Usecase15 using GSON reading from a JSON file
+	 * 
+	 * @return the contacts in file order
 	 * @throws AddressBookException 
 	 */
-	public void readDataFromJSON() throws AddressBookException {
-		Gson gson = new Gson();
-		try {
-			BufferedReader bufferedReader = new BufferedReader(new FileReader(Paths.get(JSON_FILE).toFile()));
-			JsonStreamParser parser = new JsonStreamParser(bufferedReader);
-			while (parser.hasNext()) {
-				JsonElement jsonElement = parser.next();
-				if (jsonElement.isJsonObject()) {
-					Contact contact = gson.fromJson(jsonElement, Contact.class);
-					System.out.println(contact);
-				}
+	public List<Contact> readDataFromJSON() throws AddressBookException {
+		return Metrics.time("io.readJSON", () -> {
+			try {
+				return ContactJsonCodec.readAll(Paths.get(JSON_FILE));
+			} catch (IOException e) {
+				throw new AddressBookException("Unable to read data from the json file: " + e.getMessage());
 			}
-		} catch (Exception exception) {
-			throw new AddressBookException("Unable to read data from the json file");
-		}
+		});
+	}
+
+	/**
+	 * Saves the address books together with the contacts of this service as a
+	 * binary snapshot, see {@link AddressBookSnapshot}
+	 *
+	 * @throws AddressBookException
+	 */
+	public void writeSnapshot(Map<String, AddressBook> cityBookMap,
+			Map<String, Map<String, AddressBook>> stateBookMap) throws AddressBookException {
+		Metrics.run("io.writeSnapshot", () -> {
+			try {
+				new AddressBookSnapshot(cityBookMap, stateBookMap, contactStore.toList()).save(Paths.get(SNAPSHOT_FILE));
+			} catch (IOException e) {
+				throw new AddressBookException("Unable to write the snapshot: " + e.getMessage());
+			}
+		});
+	}
+
+	/**
+	 * Loads the snapshot written by {@link #writeSnapshot(Map, Map)}, the
+	 * contacts of this service are replaced by the saved ones
+	 *
+	 * @param contactIndex index to register the loaded contacts in, may be null
+	 * @throws AddressBookException
+	 */
+	public AddressBookSnapshot readSnapshot(ContactIndex contactIndex) throws AddressBookException {
+		return Metrics.time("io.readSnapshot", () -> {
+			try {
+				AddressBookSnapshot snapshot = AddressBookSnapshot.load(Paths.get(SNAPSHOT_FILE), contactIndex);
+				contactStore.replaceAll(snapshot.getContacts());
+				return snapshot;
+			} catch (IOException e) {
+				throw new AddressBookException("Unable to read the snapshot: " + e.getMessage());
+			}
+		});
 	}
 
 	/**
@@ -156,9 +238,102 @@ public class AddressBookService {
 	 */
 	public List<Contact> readContactData(IOService ioService) throws DatabaseException {
 		if (ioService.equals(IOService.DB_IO)) {
-			this.contactList = addressBookDB.readData();
+			this.contactStore.replaceAll(addressBookDB.readData());
+		}
+		return this.contactStore.toList();
+	}
+
+	/**
+	 * Replays the contact log into the in-memory contacts. From then on the
+	 * changes made with {@link IOService#LOG_IO} are appended to the log one
+	 * record each.
+	 * 
+	 * @throws AddressBookException
+	 */
+	public List<Contact> readContactLog() throws AddressBookException {
+		return Metrics.time("io.readLog", () -> {
+			try {
+				List<Contact> contacts = this.contactLog().getContacts();
+				contactStore.replaceAll(contacts);
+				return contacts;
+			} catch (IOException e) {
+				throw new AddressBookException("Unable to read the contact log: " + e.getMessage());
+			}
+		});
+	}
+
+	/**
+	 * Drops the superseded records from the contact log
+	 * 
+	 * @throws AddressBookException
+	 */
+	public void compactContactLog() throws AddressBookException {
+		try {
+			this.contactLog().compact();
+		} catch (IOException e) {
+			throw new AddressBookException("Unable to compact the contact log: " + e.getMessage());
+		}
+	}
+
+	public synchronized void closeContactLog() throws AddressBookException {
+		if (contactLog == null) {
+			return;
+		}
+		try {
+			contactLog.close();
+		} catch (IOException e) {
+			throw new AddressBookException("Unable to close the contact log: " + e.getMessage());
+		} finally {
+			contactLog = null;
+		}
+	}
+
+	private synchronized ContactLog contactLog() throws IOException {
+		if (contactLog == null) {
+			contactLog = ContactLog.open(Paths.get(LOG_FILE));
+		}
+		return contactLog;
+	}
+
+	/**
+	 * Writes one change to the contact log. The callers predate the log and
+	 * only declare database exceptions, so a failed write is unchecked.
+	 */
+	private void logChange(String operation, LogChange change) {
+		try {
+			Metrics.run(operation, () -> change.apply(this.contactLog()));
+		} catch (IOException e) {
+			throw new UncheckedIOException("Unable to write to the contact log", e);
 		}
-		return this.contactList;
+	}
+
+	@FunctionalInterface
+	private interface LogChange {
+		void apply(ContactLog log) throws IOException;
+	}
+
+	/**
+	 * Incremental variant of readContactData(DB_IO): only contacts inserted or
+	 * updated since the previous sync are fetched and merged into the
+	 * in-memory contacts in place, the first call fetches everything. The
+	 * window re-read before the high-water mark catches rows committed late
+	 * with an older stamp. Rows deleted in the database are not detected, a
+	 * full readContactData picks those up.
+	 * 
+	 * @return number of contacts fetched and merged
+	 * @throws DatabaseException
+	 */
+	public int syncContactData() throws DatabaseException {
+		Timestamp since = syncHighWaterMark == null ? new Timestamp(0)
+				: new Timestamp(syncHighWaterMark.getTime() - syncOverlapMillis);
+		ContactChangeSet changes = addressBookDB.getContactsModifiedSince(since);
+		changes.getContacts().forEach(contactStore::upsert);
+		syncHighWaterMark = changes.getHighWaterMark();
+		return changes.getContacts().size();
+	}
+
+	public void setSyncOverlapMillis(long syncOverlapMillis) {
+		this.syncOverlapMillis = syncOverlapMillis;
 	}
 
 	/**
@@ -174,15 +349,24 @@ public class AddressBookService {
 				return;
 		}
 		Contact contact = this.getContact(name);
-		if (contact != null)
-			contact.phoneNumber = phone;
+		if (contact != null) {
+			contactStore.update(contact, c -> c.phoneNumber = phone);
+			if (ioService.equals(IOService.LOG_IO)) {
+				this.logChange("io.logUpdate", log -> log.update(contact));
+			}
+		}
 	}
 
 	public Contact getContact(String name) {
-		Contact contact = this.contactList.stream().filter(
-				contactData -> contactData.firstName.equals(name))
-				.findFirst().orElse(null);
-		return contact;
+		return contactStore.getFirstByFirstName(name);
+	}
+
+	public List<Contact> getContactsByCity(String city) {
+		return contactStore.getByCity(city);
+	}
+
+	public List<Contact> getContactsByState(String state) {
+		return contactStore.getByState(state);
 	}
 
 	public boolean checkContactDataSync(String name) throws com.capgemini.addressbookdb.DatabaseException {
@@ -209,6 +393,26 @@ public class AddressBookService {
 		return addressBookDB.getContactForCityAndState(city, state);
 	}
 
+	/**
+	 * Keyset paginated read of the contacts in the database
+	 * 
+	 * @param token continuation token of the previous page, null to start
+	 * @throws DatabaseException
+	 */
+	public ContactPage readContactPage(String token, int pageSize) throws DatabaseException {
+		return addressBookDB.readPage(token, pageSize);
+	}
+
+	public ContactPage getContactForDateRangePage(LocalDate start, LocalDate end, String token, int pageSize)
+			throws DatabaseException {
+		return addressBookDB.getContactForDateRangePage(start, end, token, pageSize);
+	}
+
+	public ContactPage getContactForCityAndStatePage(String city, String state, String token, int pageSize)
+			throws DatabaseException {
+		return addressBookDB.getContactForCityAndStatePage(city, state, token, pageSize);
+	}
+
 	/**
 	 * Usecase20: Insert data into database in a single transaction
 	 * 
@@ -218,88 +422,174 @@ public class AddressBookService {
 	public void addContactInDatabase(String fname, String lname, String address, long zip, String city, String state,
                                      long phone, String email, LocalDate date, int addId)
                                      throws SQLException, DatabaseException {
-		this.contactList.add(addressBookDB.addContact(fname, lname, address, zip, city, state, phone, email, date,addId));
+		Contact contact = addressBookDB.addContact(fname, lname, address, zip, city, state, phone, email, date, addId);
+		if (contact != null)
+			this.contactStore.add(contact);
 	}
 
 	/**
-	 * Usecase21 : Adding multiple contacts in the table using multi threading
+	 * Usecase21 : Adding multiple contacts in the table using JDBC batches,
+	 * chunks of {@link #getBulkLoadChunkSize()} contacts are written in
+	 * parallel, one transaction per chunk
 	 * 
 	 * @param contactList
+	 * @return added contacts and the rows rejected by the database
 	 */
-	public void addContactToDB(List<Contact> contactList) {
-		contactList.forEach(contact -> {
-			Runnable task = () -> {
-				System.out.println("Contact Being Added: " + Thread.currentThread().getName());
-				try {
-					this.addContactDB(contact.firstName, contact.lastName, contact.address, contact.zip, contact.city,
-							contact.state, contact.phoneNumber, contact.email, contact.date, contact.addId);
-				} catch (SQLException | DatabaseException e) {
-					e.printStackTrace();
-				}
-				System.out.println("Contact Added: " + Thread.currentThread().getName());
-			};
-			Thread thread = new Thread(task, contact.firstName);
-			thread.start();
+	public BulkLoadResult addContactToDB(List<Contact> contactList) {
+		List<CompletableFuture<Contact>> futures = this.addContactToDBAsync(contactList);
+		BulkLoadResult result = new BulkLoadResult();
+		for (int i = 0; i < futures.size(); i++) {
 			try {
-				thread.join();
-			} catch (InterruptedException e) {
-				System.out.println(Thread.currentThread().getName()+" is interrupted");
+				result.added(Collections.singletonList(futures.get(i).join()));
+			} catch (CompletionException e) {
+				Throwable cause = e.getCause() == null ? e : e.getCause();
+				result.failed(contactList.get(i), cause.getMessage());
+				LOG.warn("Unable to add contact " + contactList.get(i).firstName + ": " + cause.getMessage());
 			}
-		});
+		}
+		return result;
 	}
 
-	private void addContactDB(String fname, String lname, String address, long zip, String city, String state,
-                              long phone, String email, LocalDate date, int addId)
-                              throws com.capgemini.addressbookdb.DatabaseException, SQLException {
-		this.contactList.add(addressBookDB.addContact(fname, lname, address, zip, city, state, phone, email, date,
-				addId));
+	/**
+	 * Usecase21 : Submits the contacts to the write executor without waiting,
+	 * each future completes once its chunk is committed and the contact is
+	 * part of this service's list
+	 * 
+	 * @param contactList
+	 * @return one future per contact, in input order
+	 */
+	public List<CompletableFuture<Contact>> addContactToDBAsync(List<Contact> contactList) {
+		List<CompletableFuture<Contact>> futures = new ArrayList<>(contactList.size());
+		for (CompletableFuture<Contact> future : this.getWriteExecutor().addContacts(contactList)) {
+			futures.add(future.thenApply(contact -> {
+				this.contactStore.add(contact);
+				return contact;
+			}));
+		}
+		return futures;
+	}
+
+	private synchronized ContactWriteExecutor getWriteExecutor() {
+		if (writeExecutor == null) {
+			writeExecutor = new ContactWriteExecutor(addressBookDB, bulkLoadChunkSize);
+		}
+		return writeExecutor;
+	}
+
+	public int getBulkLoadChunkSize() {
+		return bulkLoadChunkSize;
+	}
+
+	public synchronized void setBulkLoadChunkSize(int bulkLoadChunkSize) {
+		this.bulkLoadChunkSize = bulkLoadChunkSize;
+		if (writeExecutor != null) {
+			writeExecutor.shutdown();
+			writeExecutor = null;
+		}
+	}
+
+	/**
+	 * Replaces the executor used for parallel writes, e.g. to change the
+	 * degree of parallelism or the queue capacity. The previous executor is
+	 * shut down once its queued writes finish.
+	 */
+	public synchronized void setWriteExecutor(ContactWriteExecutor writeExecutor) {
+		if (this.writeExecutor != null && this.writeExecutor != writeExecutor) {
+			this.writeExecutor.shutdown();
+		}
+		this.writeExecutor = writeExecutor;
 	}
 
 	public long countEntries(IOService ioService) {
-		return contactList.size();
+		return contactStore.size();
 	}
 
 	/**
-	 * Usecase21: Updating the table data using the multi threading
+	 * Usecase21: Updating the phone numbers of many persons with one batched
+	 * update, then patching the matching contacts through the first name index
 	 * 
-	 * @param contactMap
+	 * @param contactMap new phone number keyed by first name
+	 * @return rows affected in the database for every name
+	 * @throws DatabaseException when a chunk fails; the contacts of the chunks
+	 *                           committed before it are patched all the same
 	 */
-	public void updatePhoneNumber(Map<String, Long> contactMap) {
-		contactMap.forEach((k, v) -> {
-			Runnable task = () -> {
-				System.out.println("Contact Being Added: " + Thread.currentThread().getName());
-				try {
-					this.updatePersonsPhone(k, v,IOService.DB_IO);
-				} catch (SQLException | DatabaseException e) {
-					e.printStackTrace();
-				}
-				System.out.println("Contact Added: " + Thread.currentThread().getName());
-			};
-			Thread thread = new Thread(task, k);
-			thread.start();
-			try {
-				thread.join();
-			} catch (InterruptedException e) {
-				e.printStackTrace();
+	public Map<String, Integer> updatePhoneNumber(Map<String, Long> contactMap) throws DatabaseException {
+		Map<String, Integer> affectedRows;
+		try {
+			affectedRows = addressBookDB.updatePersonsData(contactMap, bulkLoadChunkSize);
+		} catch (PartialUpdateException e) {
+			this.patchPhoneNumbers(contactMap, e.getCommittedRows());
+			throw e;
+		}
+		this.patchPhoneNumbers(contactMap, affectedRows);
+		return affectedRows;
+	}
+
+	private void patchPhoneNumbers(Map<String, Long> contactMap, Map<String, Integer> affectedRows) {
+		affectedRows.forEach((name, rows) -> {
+			if (rows != 0) {
+				long phone = contactMap.get(name);
+				contactStore.getByFirstName(name)
+						.forEach(contact -> contactStore.update(contact, c -> c.phoneNumber = phone));
 			}
 		});
 	}
 
+	/**
+	 * @return true when the contacts with these first names match the
+	 *         database field by field, see {@link #reconcileWithDB}
+	 */
 	public boolean checkContactInSyncWithDB(List<String> nameList) {
-		List<Boolean> resultList = new ArrayList<>();
-		nameList.forEach(name -> {
-			List<Contact> employeeList;
-				try {
-					employeeList = addressBookDB.getContactFromData(name);
-					resultList.add(employeeList.get(0).equals(getContact(name)));
-				} catch (DatabaseException e) {
-					System.out.println("Unable to retrieve the data for "+name+" in database");
-				}
-		});
-		if (resultList.contains(false)) {
+		try {
+			return this.reconcileWithDB(nameList).isInSync();
+		} catch (DatabaseException e) {
+			LOG.warn("Unable to retrieve the data for " + nameList + " in database", e);
 			return false;
 		}
-		return true;
+	}
+
+	/**
+	 * Compares the in-memory contacts having the given first names with their
+	 * rows, fetched with a single query. Contacts are paired by contact id, or
+	 * by full name for contacts not yet written to the database, and compared
+	 * on the content hash of all their fields.
+	 * 
+	 * @throws DatabaseException
+	 */
+	public SyncDiff reconcileWithDB(Collection<String> names) throws DatabaseException {
+		Map<Integer, Contact> rowsById = new LinkedHashMap<>();
+		for (Contact row : addressBookDB.getContactsByFirstNames(names)) {
+			rowsById.put(row.id, row);
+		}
+		SyncDiff diff = new SyncDiff();
+		Set<Integer> seenIds = new HashSet<>();
+		for (String name : new LinkedHashSet<>(names)) {
+			for (Contact local : contactStore.getByFirstName(name)) {
+				if (local.id != 0 && !seenIds.add(local.id)) {
+					continue;
+				}
+				Contact row = local.id != 0 ? rowsById.remove(local.id) : removeByFullName(rowsById, local);
+				if (row == null) {
+					diff.missing(local);
+				} else if (row.contentHash() != local.contentHash()) {
+					diff.stale(local, row);
+				}
+			}
+		}
+		rowsById.values().forEach(diff::extra);
+		return diff;
+	}
+
+	private static Contact removeByFullName(Map<Integer, Contact> rowsById, Contact local) {
+		Iterator<Contact> rows = rowsById.values().iterator();
+		while (rows.hasNext()) {
+			Contact row = rows.next();
+			if (row.equals(local)) {
+				rows.remove();
+				return row;
+			}
+		}
+		return null;
 	}
 	/**
 	 * Usecase23 : Adding multiple contacts to json server 
@@ -307,12 +597,24 @@ public class AddressBookService {
 	 * @param contact
 	 */
 	public void addContactToAddressBook(Contact contact) {
-		contactList.add(contact);
+		contactStore.add(contact);
+	}
+	public void addContactToAddressBook(Contact contact, IOService ioService) {
+		contactStore.add(contact);
+		if (ioService.equals(IOService.LOG_IO)) {
+			this.logChange("io.logAdd", log -> log.add(contact));
+		}
 	}
 	public void deleteContactFromAddressBook(String firstName, IOService ioService) {
 		if(ioService.equals(IOService.REST_IO)) {
 			Contact contact = this.getContact(firstName);
-			contactList.remove(contact);
+			contactStore.remove(contact);
 		}	
+		if (ioService.equals(IOService.LOG_IO)) {
+			Contact contact = this.getContact(firstName);
+			if (contact != null && contactStore.remove(contact)) {
+				this.logChange("io.logDelete", log -> log.delete(contact));
+			}
+		}
 	}
 }
@@ -0,0 +1,284 @@
+package com.capgemini.addressbookdb;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshot of the in-memory address books: the books by city, the
+ * books by state and the contacts held by the service. Every contact and
+ * every book is stored once and referenced by index, so a contact shared by
+ * several books, or a city map shared by several states, is still shared
+ * after loading.
+ *
+ * <pre>
+ * "ABSN" version:byte
+ * dictionary  count (string)*          cities, states and map keys
+ * contacts    count (first last address city# state# zip phone email date addId id)*
+ * books       count (city# count contact#*)*
+ * cities      count (key# book#)*
+ * states      count (key# shared:byte [count (key# book#)*])*
+ * service     count contact#*
+ * crc32       4 bytes over everything before
+ * </pre>
+ *
+ * Field encodings are described in {@link BinaryContactCodec}. Loading maps
+ * the file into memory and checks the CRC before decoding anything.
+ */
+public class AddressBookSnapshot {
+	public static final int VERSION = 1;
+	private static final byte[] MAGIC = { 'A', 'B', 'S', 'N' };
+
+	private final Map<String, AddressBook> cityBookMap;
+	private final Map<String, Map<String, AddressBook>> stateBookMap;
+	private final List<Contact> contacts;
+
+	public AddressBookSnapshot(Map<String, AddressBook> cityBookMap,
+			Map<String, Map<String, AddressBook>> stateBookMap, List<Contact> contacts) {
+		this.cityBookMap = cityBookMap == null ? new HashMap<>() : cityBookMap;
+		this.stateBookMap = stateBookMap == null ? new HashMap<>() : stateBookMap;
+		this.contacts = contacts == null ? new ArrayList<>() : contacts;
+	}
+
+	public Map<String, AddressBook> getCityBookMap() {
+		return cityBookMap;
+	}
+
+	public Map<String, Map<String, AddressBook>> getStateBookMap() {
+		return stateBookMap;
+	}
+
+	public List<Contact> getContacts() {
+		return contacts;
+	}
+
+	/**
+	 * Writes the snapshot to a temporary file next to the target and moves it
+	 * into place, so a crash never leaves a half written snapshot behind
+	 */
+	public void save(Path path) throws IOException {
+		Path absolute = path.toAbsolutePath();
+		Path temporary = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+		try {
+			try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16)) {
+				this.write(new BinaryContactCodec.Output(out));
+			}
+			Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+	}
+
+	/**
+	 * @param contactIndex index the loaded books register their contacts in,
+	 *                     may be null
+	 */
+	public static AddressBookSnapshot load(Path path, ContactIndex contactIndex) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < MAGIC.length + 1 + 4 || size > Integer.MAX_VALUE) {
+				throw new IOException("Not an address book snapshot: " + path);
+			}
+			MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			int bodyLength = (int) size - 4;
+			ByteBuffer body = file.duplicate();
+			body.limit(bodyLength);
+			CRC32 checksum = new CRC32();
+			checksum.update(body.duplicate());
+			if ((int) checksum.getValue() != file.getInt(bodyLength)) {
+				throw new IOException("Snapshot checksum mismatch, the file is damaged: " + path);
+			}
+			return read(new BinaryContactCodec.Input(body), contactIndex);
+		}
+	}
+
+	private void write(BinaryContactCodec.Output out) throws IOException {
+		List<AddressBook> books = new ArrayList<>();
+		Map<AddressBook, Integer> bookIndexes = new IdentityHashMap<>();
+		List<Contact> allContacts = new ArrayList<>();
+		Map<Contact, Integer> contactIndexes = new IdentityHashMap<>();
+		collectBooks(cityBookMap, books, bookIndexes);
+		for (Map<String, AddressBook> cities : stateBookMap.values()) {
+			collectBooks(cities, books, bookIndexes);
+		}
+		for (AddressBook book : books) {
+			collectContacts(book.getContactList(), allContacts, contactIndexes);
+			out.define(book.city);
+		}
+		collectContacts(contacts, allContacts, contactIndexes);
+		for (Contact contact : allContacts) {
+			out.define(contact.city);
+			out.define(contact.state);
+		}
+		cityBookMap.keySet().forEach(out::define);
+		stateBookMap.forEach((state, cities) -> {
+			out.define(state);
+			cities.keySet().forEach(out::define);
+		});
+
+		for (byte b : MAGIC) {
+			out.writeByte(b);
+		}
+		out.writeByte(VERSION);
+		out.writeDictionary();
+		out.writeVarLong(allContacts.size());
+		for (Contact contact : allContacts) {
+			out.writeString(contact.firstName);
+			out.writeString(contact.lastName);
+			out.writeString(contact.address);
+			out.writeReference(contact.city);
+			out.writeReference(contact.state);
+			out.writeVarLong(contact.zip);
+			out.writeVarLong(contact.phoneNumber);
+			out.writeString(contact.email);
+			out.writeDate(contact.date);
+			out.writeVarLong(contact.addId);
+			out.writeVarLong(contact.id);
+		}
+		out.writeVarLong(books.size());
+		for (AddressBook book : books) {
+			out.writeReference(book.city);
+			writeContactReferences(out, book.getContactList(), contactIndexes);
+		}
+		writeBookMap(out, cityBookMap, bookIndexes);
+		out.writeVarLong(stateBookMap.size());
+		for (Map.Entry<String, Map<String, AddressBook>> state : stateBookMap.entrySet()) {
+			out.writeReference(state.getKey());
+			boolean shared = state.getValue() == cityBookMap;
+			out.writeByte(shared ? 1 : 0);
+			if (!shared) {
+				writeBookMap(out, state.getValue(), bookIndexes);
+			}
+		}
+		writeContactReferences(out, contacts, contactIndexes);
+		out.finish();
+	}
+
+	private static void collectBooks(Map<String, AddressBook> bookMap, List<AddressBook> books,
+			Map<AddressBook, Integer> bookIndexes) {
+		for (AddressBook book : bookMap.values()) {
+			if (!bookIndexes.containsKey(book)) {
+				bookIndexes.put(book, books.size());
+				books.add(book);
+			}
+		}
+	}
+
+	private static void collectContacts(List<Contact> source, List<Contact> allContacts,
+			Map<Contact, Integer> contactIndexes) {
+		for (Contact contact : source) {
+			if (!contactIndexes.containsKey(contact)) {
+				contactIndexes.put(contact, allContacts.size());
+				allContacts.add(contact);
+			}
+		}
+	}
+
+	private static void writeContactReferences(BinaryContactCodec.Output out, List<Contact> source,
+			Map<Contact, Integer> contactIndexes) throws IOException {
+		out.writeVarLong(source.size());
+		for (Contact contact : source) {
+			out.writeVarLong(contactIndexes.get(contact));
+		}
+	}
+
+	private static void writeBookMap(BinaryContactCodec.Output out, Map<String, AddressBook> bookMap,
+			Map<AddressBook, Integer> bookIndexes) throws IOException {
+		out.writeVarLong(bookMap.size());
+		for (Map.Entry<String, AddressBook> entry : bookMap.entrySet()) {
+			out.writeReference(entry.getKey());
+			out.writeVarLong(bookIndexes.get(entry.getValue()));
+		}
+	}
+
+	private static AddressBookSnapshot read(BinaryContactCodec.Input in, ContactIndex contactIndex)
+			throws IOException {
+		for (byte b : MAGIC) {
+			if (in.readByte() != b) {
+				throw new IOException("Not an address book snapshot");
+			}
+		}
+		int version = in.readByte();
+		if (version != VERSION) {
+			throw new IOException("Unsupported snapshot version " + version);
+		}
+		in.readDictionary();
+		Contact[] allContacts = new Contact[in.readSize()];
+		for (int i = 0; i < allContacts.length; i++) {
+			String firstName = in.readString();
+			String lastName = in.readString();
+			String address = in.readString();
+			String city = in.readReference();
+			String state = in.readReference();
+			long zip = in.readVarLong();
+			long phoneNumber = in.readVarLong();
+			String email = in.readString();
+			Contact contact = new Contact(firstName, lastName, address, city, state, zip, phoneNumber, email);
+			contact.date = in.readDate();
+			contact.addId = in.readVarInt();
+			contact.id = in.readVarInt();
+			allContacts[i] = contact;
+		}
+		AddressBook[] books = new AddressBook[in.readSize()];
+		for (int i = 0; i < books.length; i++) {
+			AddressBook book = new AddressBook(in.readReference(), contactIndex);
+			List<Contact> bookContacts = readContactReferences(in, allContacts);
+			book.getContactList().addAll(bookContacts);
+			if (contactIndex != null) {
+				bookContacts.forEach(contactIndex::add);
+			}
+			books[i] = book;
+		}
+		Map<String, AddressBook> cityBookMap = readBookMap(in, books);
+		int states = in.readSize();
+		Map<String, Map<String, AddressBook>> stateBookMap = new HashMap<>();
+		for (int i = 0; i < states; i++) {
+			String state = in.readReference();
+			stateBookMap.put(state, in.readByte() == 1 ? cityBookMap : readBookMap(in, books));
+		}
+		List<Contact> contacts = readContactReferences(in, allContacts);
+		return new AddressBookSnapshot(cityBookMap, stateBookMap, contacts);
+	}
+
+	private static List<Contact> readContactReferences(BinaryContactCodec.Input in, Contact[] allContacts)
+			throws IOException {
+		int size = in.readSize();
+		Contact[] contacts = new Contact[size];
+		for (int i = 0; i < size; i++) {
+			contacts[i] = allContacts[checkIndex(in.readVarInt(), allContacts.length)];
+		}
+		return new ArrayList<>(Arrays.asList(contacts));
+	}
+
+	private static Map<String, AddressBook> readBookMap(BinaryContactCodec.Input in, AddressBook[] books)
+			throws IOException {
+		int size = in.readSize();
+		Map<String, AddressBook> bookMap = new HashMap<>();
+		for (int i = 0; i < size; i++) {
+			String key = in.readReference();
+			bookMap.put(key, books[checkIndex(in.readVarInt(), books.length)]);
+		}
+		return bookMap;
+	}
+
+	private static int checkIndex(int index, int size) throws IOException {
+		if (index < 0 || index >= size) {
+			throw new IOException("Invalid reference " + index + " in snapshot");
+		}
+		return index;
+	}
+}
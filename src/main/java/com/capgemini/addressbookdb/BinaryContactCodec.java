@@ -0,0 +1,258 @@
+package com.capgemini.addressbookdb;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Field encoding of the binary snapshot format, see
+ * {@link AddressBookSnapshot}, and of the {@link ContactLog} records. Integers are zigzag varints (1 byte for
+ * small values, 5 bytes for a 10 digit phone number), strings are a varint
+ * byte length followed by UTF-8 with 0 meaning null, and dictionary strings
+ * are written once and then referenced by varint index.
+ */
+final class BinaryContactCodec {
+	private BinaryContactCodec() {
+	}
+
+	/**
+	 * Buffered encoder keeping a CRC32 of everything written
+	 */
+	static class Output {
+		private final OutputStream out;
+		private final byte[] buffer = new byte[64 * 1024];
+		private final CRC32 checksum = new CRC32();
+		private final Map<String, Integer> dictionary = new HashMap<>();
+		private int position;
+
+		Output(OutputStream out) {
+			this.out = out;
+		}
+
+		void writeByte(int value) throws IOException {
+			if (position == buffer.length) {
+				this.flushBuffer();
+			}
+			buffer[position++] = (byte) value;
+		}
+
+		void writeBytes(byte[] bytes) throws IOException {
+			if (bytes.length > buffer.length - position) {
+				this.flushBuffer();
+				if (bytes.length > buffer.length) {
+					checksum.update(bytes);
+					out.write(bytes);
+					return;
+				}
+			}
+			System.arraycopy(bytes, 0, buffer, position, bytes.length);
+			position += bytes.length;
+		}
+
+		void writeVarLong(long value) throws IOException {
+			long zigzag = (value << 1) ^ (value >> 63);
+			while ((zigzag & ~0x7FL) != 0) {
+				this.writeByte((int) ((zigzag & 0x7F) | 0x80));
+				zigzag >>>= 7;
+			}
+			this.writeByte((int) zigzag);
+		}
+
+		void writeString(String value) throws IOException {
+			if (value == null) {
+				this.writeVarLong(0);
+				return;
+			}
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			this.writeVarLong(bytes.length + 1L);
+			this.writeBytes(bytes);
+		}
+
+		/**
+		 * Adds a value to the dictionary written by {@link #writeDictionary()}
+		 */
+		void define(String value) {
+			if (value != null && !dictionary.containsKey(value)) {
+				dictionary.put(value, dictionary.size());
+			}
+		}
+
+		void writeDictionary() throws IOException {
+			String[] values = new String[dictionary.size()];
+			dictionary.forEach((value, index) -> values[index] = value);
+			this.writeVarLong(values.length);
+			for (String value : values) {
+				this.writeString(value);
+			}
+		}
+
+		void writeReference(String value) throws IOException {
+			this.writeVarLong(value == null ? 0 : dictionary.get(value) + 1L);
+		}
+
+		/**
+		 * Epoch day, shifted by one from 1970-01-01 on so 0 is free for null
+		 */
+		void writeDate(LocalDate date) throws IOException {
+			if (date == null) {
+				this.writeVarLong(0);
+				return;
+			}
+			long epochDay = date.toEpochDay();
+			this.writeVarLong(epochDay >= 0 ? epochDay + 1 : epochDay);
+		}
+
+		/**
+		 * A contact with every field inline, for records that stand alone
+		 */
+		void writeContact(Contact contact) throws IOException {
+			this.writeString(contact.firstName);
+			this.writeString(contact.lastName);
+			this.writeString(contact.address);
+			this.writeString(contact.city);
+			this.writeString(contact.state);
+			this.writeVarLong(contact.zip);
+			this.writeVarLong(contact.phoneNumber);
+			this.writeString(contact.email);
+			this.writeDate(contact.date);
+			this.writeVarLong(contact.addId);
+			this.writeVarLong(contact.id);
+		}
+
+		/**
+		 * Hands everything buffered to the stream, without a checksum
+		 */
+		void flush() throws IOException {
+			this.flushBuffer();
+			out.flush();
+		}
+
+		/**
+		 * Appends the checksum of everything written so far and flushes
+		 */
+		void finish() throws IOException {
+			this.flushBuffer();
+			long crc = checksum.getValue();
+			out.write(new byte[] { (byte) (crc >>> 24), (byte) (crc >>> 16), (byte) (crc >>> 8), (byte) crc });
+			out.flush();
+		}
+
+		private void flushBuffer() throws IOException {
+			checksum.update(buffer, 0, position);
+			out.write(buffer, 0, position);
+			position = 0;
+		}
+	}
+
+	/**
+	 * Decoder over a byte buffer, typically a memory mapped file
+	 */
+	static class Input {
+		private final ByteBuffer buffer;
+		private byte[] scratch = new byte[256];
+		private List<String> dictionary = new ArrayList<>();
+
+		Input(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		int readByte() throws IOException {
+			try {
+				return buffer.get() & 0xFF;
+			} catch (BufferUnderflowException e) {
+				throw new IOException("Data is truncated");
+			}
+		}
+
+		long readVarLong() throws IOException {
+			long zigzag = 0;
+			for (int shift = 0; shift < 64; shift += 7) {
+				int b = this.readByte();
+				zigzag |= (long) (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return (zigzag >>> 1) ^ -(zigzag & 1);
+				}
+			}
+			throw new IOException("Malformed varint");
+		}
+
+		int readVarInt() throws IOException {
+			long value = this.readVarLong();
+			if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+				throw new IOException("Value out of range: " + value);
+			}
+			return (int) value;
+		}
+
+		/**
+		 * Reads a count or length, which is never negative
+		 */
+		int readSize() throws IOException {
+			int size = this.readVarInt();
+			if (size < 0 || size > buffer.remaining()) {
+				throw new IOException("Invalid size: " + size);
+			}
+			return size;
+		}
+
+		String readString() throws IOException {
+			long length = this.readVarLong() - 1;
+			if (length < 0) {
+				return null;
+			}
+			if (length > buffer.remaining()) {
+				throw new IOException("Data is truncated");
+			}
+			int size = (int) length;
+			if (scratch.length < size) {
+				scratch = new byte[Math.max(size, scratch.length * 2)];
+			}
+			buffer.get(scratch, 0, size);
+			return new String(scratch, 0, size, StandardCharsets.UTF_8);
+		}
+
+		void readDictionary() throws IOException {
+			int size = this.readSize();
+			dictionary = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				dictionary.add(this.readString());
+			}
+		}
+
+		String readReference() throws IOException {
+			int reference = this.readVarInt();
+			if (reference == 0) {
+				return null;
+			}
+			if (reference < 0 || reference > dictionary.size()) {
+				throw new IOException("Invalid dictionary reference: " + reference);
+			}
+			return dictionary.get(reference - 1);
+		}
+
+		LocalDate readDate() throws IOException {
+			long value = this.readVarLong();
+			if (value == 0) {
+				return null;
+			}
+			return LocalDate.ofEpochDay(value > 0 ? value - 1 : value);
+		}
+
+		Contact readContact() throws IOException {
+			Contact contact = new Contact(this.readString(), this.readString(), this.readString(), this.readString(),
+					this.readString(), this.readVarLong(), this.readVarLong(), this.readString());
+			contact.date = this.readDate();
+			contact.addId = this.readVarInt();
+			contact.id = this.readVarInt();
+			return contact;
+		}
+	}
+}
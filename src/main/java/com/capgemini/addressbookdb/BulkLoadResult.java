@@ -0,0 +1,62 @@
+package com.capgemini.addressbookdb;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a bulk insert: the contacts that made it into the database with
+ * their generated ids, and the rows that were rejected together with the
+ * reason.
+ */
+public class BulkLoadResult {
+	private final List<Contact> addedContacts = new ArrayList<>();
+	private final List<Failure> failures = new ArrayList<>();
+
+	public static class Failure {
+		private final Contact contact;
+		private final String reason;
+
+		public Failure(Contact contact, String reason) {
+			this.contact = contact;
+			this.reason = reason;
+		}
+
+		public Contact getContact() {
+			return contact;
+		}
+
+		public String getReason() {
+			return reason;
+		}
+
+		@Override
+		public String toString() {
+			return contact.getFirstName() + " " + contact.getLastName() + ": " + reason;
+		}
+	}
+
+	void added(List<Contact> contacts) {
+		addedContacts.addAll(contacts);
+	}
+
+	void failed(Contact contact, String reason) {
+		failures.add(new Failure(contact, reason));
+	}
+
+	public List<Contact> getAddedContacts() {
+		return Collections.unmodifiableList(addedContacts);
+	}
+
+	public List<Failure> getFailures() {
+		return Collections.unmodifiableList(failures);
+	}
+
+	public int getAddedCount() {
+		return addedContacts.size();
+	}
+
+	public int getFailedCount() {
+		return failures.size();
+	}
+}
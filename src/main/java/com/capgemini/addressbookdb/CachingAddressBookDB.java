@@ -0,0 +1,167 @@
+package com.capgemini.addressbookdb;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+/**
+ * Read-through cache in front of {@link AddressBookDB}. Every query type has
+ * its own size and TTL bounded Guava cache with statistics. Writes made
+ * through this instance invalidate all cached results once they are
+ * committed. A read that was already running when a write invalidated the
+ * caches is returned to its caller but not cached, as it may hold rows from
+ * before the write. So only changes made by other processes can be seen
+ * late, and never later than the TTL.
+ */
+public class CachingAddressBookDB extends AddressBookDB {
+	private static CachingAddressBookDB cachingAddressBookDB;
+
+	private final Cache<String, List<Contact>> allContacts;
+	private final Cache<String, List<Contact>> contactsByName;
+	private final Cache<List<Object>, List<Contact>> contactsByDateRange;
+	private final Cache<List<Object>, List<Contact>> contactsByCityAndState;
+	private long generation;
+
+	public CachingAddressBookDB(ConnectionPool connectionPool, long maximumSize, long timeToLiveSeconds) {
+		super(connectionPool);
+		allContacts = newCache(1, timeToLiveSeconds);
+		contactsByName = newCache(maximumSize, timeToLiveSeconds);
+		contactsByDateRange = newCache(maximumSize, timeToLiveSeconds);
+		contactsByCityAndState = newCache(maximumSize, timeToLiveSeconds);
+	}
+
+	public static synchronized CachingAddressBookDB getCachingInstance() {
+		if (cachingAddressBookDB == null) {
+			AddressBookDB addressBookDB = AddressBookDB.getInstance();
+			cachingAddressBookDB = new CachingAddressBookDB(addressBookDB.getConnectionPool(), 10000, 300);
+		}
+		return cachingAddressBookDB;
+	}
+
+	private static <K> Cache<K, List<Contact>> newCache(long maximumSize, long timeToLiveSeconds) {
+		return CacheBuilder.newBuilder().maximumSize(maximumSize)
+				.expireAfterWrite(timeToLiveSeconds, TimeUnit.SECONDS).recordStats().build();
+	}
+
+	@Override
+	public List<Contact> readData() throws DatabaseException {
+		return load(allContacts, "all", super::readData);
+	}
+
+	@Override
+	public List<Contact> getContactFromData(String name) throws DatabaseException {
+		return load(contactsByName, name, () -> super.getContactFromData(name));
+	}
+
+	@Override
+	public List<Contact> getContactForDateRange(LocalDate start, LocalDate end) throws DatabaseException {
+		return load(contactsByDateRange, Arrays.asList(start, end), () -> super.getContactForDateRange(start, end));
+	}
+
+	@Override
+	public List<Contact> getContactForCityAndState(String city, String state) throws DatabaseException {
+		return load(contactsByCityAndState, Arrays.asList(city, state),
+				() -> super.getContactForCityAndState(city, state));
+	}
+
+	@Override
+	public int updatePersonsData(String name, long phone) throws DatabaseException, SQLException {
+		try {
+			return super.updatePersonsData(name, phone);
+		} finally {
+			invalidateAll();
+		}
+	}
+
+	@Override
+	public Map<String, Integer> updatePersonsData(Map<String, Long> phoneByName, int chunkSize)
+			throws DatabaseException {
+		try {
+			return super.updatePersonsData(phoneByName, chunkSize);
+		} finally {
+			invalidateAll();
+		}
+	}
+
+	@Override
+	public Contact addContact(String fname, String lname, String address, long zip, String city, String state,
+			long phone, String email, LocalDate date, int addId) throws DatabaseException, SQLException {
+		try {
+			return super.addContact(fname, lname, address, zip, city, state, phone, email, date, addId);
+		} finally {
+			invalidateAll();
+		}
+	}
+
+	@Override
+	public BulkLoadResult addContacts(List<Contact> contacts, int chunkSize) throws DatabaseException {
+		try {
+			return super.addContacts(contacts, chunkSize);
+		} finally {
+			invalidateAll();
+		}
+	}
+
+	public synchronized void invalidateAll() {
+		generation++;
+		allContacts.invalidateAll();
+		contactsByName.invalidateAll();
+		contactsByDateRange.invalidateAll();
+		contactsByCityAndState.invalidateAll();
+	}
+
+	/**
+	 * @return hit/miss/eviction statistics per query type
+	 */
+	public Map<String, CacheStats> getCacheStats() {
+		Map<String, CacheStats> stats = new LinkedHashMap<>();
+		stats.put("readData", allContacts.stats());
+		stats.put("getContactFromData", contactsByName.stats());
+		stats.put("getContactForDateRange", contactsByDateRange.stats());
+		stats.put("getContactForCityAndState", contactsByCityAndState.stats());
+		return stats;
+	}
+
+	/**
+	 * Loads through the cache and hands out copies of the cached contacts, so
+	 * callers may change the list and the contacts they get without the
+	 * changes showing up in later reads. Rows loaded while a write
+	 * invalidated the caches are not cached.
+	 */
+	private <K> List<Contact> load(Cache<K, List<Contact>> cache, K key, Callable<List<Contact>> loader)
+			throws DatabaseException {
+		List<Contact> cached = cache.getIfPresent(key);
+		if (cached == null) {
+			long loadGeneration;
+			synchronized (this) {
+				loadGeneration = generation;
+			}
+			try {
+				cached = loader.call();
+			} catch (DatabaseException | RuntimeException e) {
+				throw e;
+			} catch (Exception e) {
+				throw new DatabaseException("Unable to load contacts: " + e);
+			}
+			synchronized (this) {
+				if (generation == loadGeneration) {
+					cache.put(key, cached);
+				}
+			}
+		}
+		List<Contact> copies = new ArrayList<>(cached.size());
+		for (Contact contact : cached) {
+			copies.add(new Contact(contact));
+		}
+		return copies;
+	}
+}
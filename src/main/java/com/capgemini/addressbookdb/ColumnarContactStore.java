@@ -0,0 +1,481 @@
+package com.capgemini.addressbookdb;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Contacts stored column by column instead of as Contact objects: zip and
+ * phone number in long[], the date as an int[] epoch day, and city and state
+ * as int[] codes into a {@link StringDictionary}. The names, address and
+ * email of a row are UTF-8 encoded one after the other into a shared byte
+ * arena, each prefixed by its length, and the row keeps an int offset into
+ * it. A million contacts take a handful of arrays rather than a few million
+ * objects with their own headers, and scans such as
+ * {@link #countByState(String)} or {@link #rowsSortedByZip()} walk primitive
+ * arrays.
+ * <p>
+ * Rows are addressed by index. {@link #get(int)} builds a Contact, while
+ * {@link #forEach(Consumer)} passes one reused {@link ContactView} along the
+ * rows, decoding only the fields that are asked for. Readers share a read
+ * lock and mutations take the write lock, as in {@link ContactStore}.
+ */
+public class ColumnarContactStore {
+	private static final int NO_DATE = Integer.MIN_VALUE;
+	private static final int FIRST_NAME = 0;
+	private static final int LAST_NAME = 1;
+	private static final int ADDRESS = 2;
+	private static final int EMAIL = 3;
+	private static final int MIN_COMPACT_BYTES = 1 << 20;
+
+	private final StringDictionary cities;
+	private final StringDictionary states;
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private byte[] text = new byte[1024];
+	private int textLength;
+	private int deadText;
+	private int[] textOffsets;
+	private int[] cityCodes;
+	private int[] stateCodes;
+	private long[] zips;
+	private long[] phoneNumbers;
+	private int[] epochDays;
+	private int[] addIds;
+	private int[] ids;
+	private int size;
+
+	/**
+	 * Uses the shared {@link StringDictionary#CITIES} and
+	 * {@link StringDictionary#STATES}, so codes mean the same in every store
+	 */
+	public ColumnarContactStore() {
+		this(StringDictionary.CITIES, StringDictionary.STATES);
+	}
+
+	/**
+	 * @param cities dictionary for the city column, may be shared with other
+	 *               stores
+	 * @param states dictionary for the state column
+	 */
+	public ColumnarContactStore(StringDictionary cities, StringDictionary states) {
+		this.cities = cities;
+		this.states = states;
+		this.allocate(16);
+	}
+
+	public ColumnarContactStore(Collection<Contact> contacts) {
+		this();
+		this.addAll(contacts);
+	}
+
+	/**
+	 * @return the row of the new contact
+	 */
+	public int add(Contact contact) {
+		lock.writeLock().lock();
+		try {
+			this.ensureCapacity(size + 1);
+			this.write(size, contact);
+			return size++;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void addAll(Collection<Contact> contacts) {
+		lock.writeLock().lock();
+		try {
+			this.ensureCapacity(size + contacts.size());
+			for (Contact contact : contacts) {
+				this.write(size, contact);
+				size++;
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Overwrites a row with the fields of the contact
+	 */
+	public void set(int row, Contact contact) {
+		lock.writeLock().lock();
+		try {
+			this.checkRow(row);
+			deadText += this.textRecordLength(row);
+			this.write(row, contact);
+			this.compactTextIfMostlyDead();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes a row by moving the last row into its place, so rows are not
+	 * kept in insertion order once something is removed
+	 */
+	public void remove(int row) {
+		lock.writeLock().lock();
+		try {
+			this.checkRow(row);
+			deadText += this.textRecordLength(row);
+			int last = --size;
+			if (row != last) {
+				textOffsets[row] = textOffsets[last];
+				cityCodes[row] = cityCodes[last];
+				stateCodes[row] = stateCodes[last];
+				zips[row] = zips[last];
+				phoneNumbers[row] = phoneNumbers[last];
+				epochDays[row] = epochDays[last];
+				addIds[row] = addIds[last];
+				ids[row] = ids[last];
+			}
+			this.compactTextIfMostlyDead();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return size;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return a new Contact with the fields of the row
+	 */
+	public Contact get(int row) {
+		lock.readLock().lock();
+		try {
+			this.checkRow(row);
+			return this.toContact(row);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Passes every row to the action through one reused view. The view is
+	 * only valid inside the call; use {@link ContactView#toContact()} to keep
+	 * a row.
+	 */
+	public void forEach(Consumer<ContactView> action) {
+		lock.readLock().lock();
+		try {
+			ContactView view = new ContactView();
+			for (int row = 0; row < size; row++) {
+				view.row = row;
+				action.accept(view);
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public int countByCity(String city) {
+		return this.count(cityCodes, cities.codeOf(city), city);
+	}
+
+	public int countByState(String state) {
+		return this.count(stateCodes, states.codeOf(state), state);
+	}
+
+	/**
+	 * @return number of contacts per state, states in dictionary code order
+	 */
+	public Map<String, Integer> countByState() {
+		lock.readLock().lock();
+		try {
+			int[] counts = new int[states.size() + 1];
+			for (int row = 0; row < size; row++) {
+				counts[stateCodes[row] + 1]++;
+			}
+			Map<String, Integer> result = new LinkedHashMap<>();
+			for (int code = StringDictionary.NULL; code < counts.length - 1; code++) {
+				if (counts[code + 1] > 0) {
+					result.put(states.decode(code), counts[code + 1]);
+				}
+			}
+			return result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public List<Contact> getByCity(String city) {
+		return this.select(cityCodes, cities.codeOf(city), city);
+	}
+
+	public List<Contact> getByState(String state) {
+		return this.select(stateCodes, states.codeOf(state), state);
+	}
+
+	/**
+	 * Sorts the rows by zip with {@link ContactSorter#radixSort}, straight
+	 * over the zip column
+	 *
+	 * @return row numbers in ascending zip order
+	 */
+	public int[] rowsSortedByZip() {
+		lock.readLock().lock();
+		try {
+			return ContactSorter.radixSort(zips, size);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private int count(int[] codes, int code, String value) {
+		if (code == StringDictionary.NULL && value != null) {
+			return 0;
+		}
+		lock.readLock().lock();
+		try {
+			int count = 0;
+			for (int row = 0; row < size; row++) {
+				if (codes[row] == code) {
+					count++;
+				}
+			}
+			return count;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private List<Contact> select(int[] codes, int code, String value) {
+		List<Contact> matches = new ArrayList<>();
+		if (code == StringDictionary.NULL && value != null) {
+			return matches;
+		}
+		lock.readLock().lock();
+		try {
+			for (int row = 0; row < size; row++) {
+				if (codes[row] == code) {
+					matches.add(this.toContact(row));
+				}
+			}
+			return matches;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void write(int row, Contact contact) {
+		textOffsets[row] = textLength;
+		this.appendText(contact.firstName);
+		this.appendText(contact.lastName);
+		this.appendText(contact.address);
+		this.appendText(contact.email);
+		cityCodes[row] = cities.encode(contact.city);
+		stateCodes[row] = states.encode(contact.state);
+		zips[row] = contact.zip;
+		phoneNumbers[row] = contact.phoneNumber;
+		epochDays[row] = contact.date == null ? NO_DATE : Math.toIntExact(contact.date.toEpochDay());
+		addIds[row] = contact.addId;
+		ids[row] = contact.id;
+	}
+
+	private Contact toContact(int row) {
+		int offset = textOffsets[row];
+		String firstName = this.readText(offset);
+		offset = this.skipText(offset);
+		String lastName = this.readText(offset);
+		offset = this.skipText(offset);
+		String address = this.readText(offset);
+		String email = this.readText(this.skipText(offset));
+		Contact contact = new Contact(firstName, lastName, address, cities.decode(cityCodes[row]),
+				states.decode(stateCodes[row]), zips[row], phoneNumbers[row], email);
+		contact.date = epochDays[row] == NO_DATE ? null : LocalDate.ofEpochDay(epochDays[row]);
+		contact.addId = addIds[row];
+		contact.id = ids[row];
+		return contact;
+	}
+
+	/**
+	 * Appends a string as a varint of its byte length plus one, 0 for null,
+	 * followed by its UTF-8 bytes
+	 */
+	private void appendText(String value) {
+		byte[] bytes = value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+		int length = bytes == null ? 0 : bytes.length + 1;
+		this.ensureTextCapacity(5 + (bytes == null ? 0 : bytes.length));
+		while ((length & ~0x7F) != 0) {
+			text[textLength++] = (byte) ((length & 0x7F) | 0x80);
+			length >>>= 7;
+		}
+		text[textLength++] = (byte) length;
+		if (bytes != null) {
+			System.arraycopy(bytes, 0, text, textLength, bytes.length);
+			textLength += bytes.length;
+		}
+	}
+
+	private String readText(int offset) {
+		int length = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = text[offset++];
+			length |= (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+		return length == 0 ? null : new String(text, offset, length - 1, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @return the offset just after the string at this offset
+	 */
+	private int skipText(int offset) {
+		int length = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = text[offset++];
+			length |= (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+		return offset + Math.max(length - 1, 0);
+	}
+
+	/**
+	 * Reads one text field of a row, 0 to 3 in the order first name, last
+	 * name, address, email
+	 */
+	private String text(int row, int field) {
+		int offset = textOffsets[row];
+		for (int i = 0; i < field; i++) {
+			offset = this.skipText(offset);
+		}
+		return this.readText(offset);
+	}
+
+	private int textRecordLength(int row) {
+		int start = textOffsets[row];
+		int offset = start;
+		for (int i = 0; i <= EMAIL; i++) {
+			offset = this.skipText(offset);
+		}
+		return offset - start;
+	}
+
+	/**
+	 * Rewrites the arena without the text of removed and overwritten rows,
+	 * once that is more than half of it
+	 */
+	private void compactTextIfMostlyDead() {
+		if (deadText < MIN_COMPACT_BYTES || deadText < textLength / 2) {
+			return;
+		}
+		byte[] compacted = new byte[Math.max(textLength - deadText, 1024)];
+		int length = 0;
+		for (int row = 0; row < size; row++) {
+			int recordLength = this.textRecordLength(row);
+			System.arraycopy(text, textOffsets[row], compacted, length, recordLength);
+			textOffsets[row] = length;
+			length += recordLength;
+		}
+		text = compacted;
+		textLength = length;
+		deadText = 0;
+	}
+
+	private void ensureTextCapacity(int extra) {
+		if ((long) textLength + extra > Integer.MAX_VALUE - 8) {
+			throw new IllegalStateException("Text of the contacts exceeds 2 GB");
+		}
+		if (textLength + extra > text.length) {
+			long grown = Math.max((long) textLength + extra, text.length + ((long) text.length >> 1));
+			text = Arrays.copyOf(text, (int) Math.min(grown, Integer.MAX_VALUE - 8));
+		}
+	}
+
+	private void checkRow(int row) {
+		if (row < 0 || row >= size) {
+			throw new IndexOutOfBoundsException("Row " + row + ", size " + size);
+		}
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > zips.length) {
+			this.allocate(Math.max(capacity, zips.length + (zips.length >> 1)));
+		}
+	}
+
+	private void allocate(int capacity) {
+		textOffsets = textOffsets == null ? new int[capacity] : Arrays.copyOf(textOffsets, capacity);
+		cityCodes = cityCodes == null ? new int[capacity] : Arrays.copyOf(cityCodes, capacity);
+		stateCodes = stateCodes == null ? new int[capacity] : Arrays.copyOf(stateCodes, capacity);
+		zips = zips == null ? new long[capacity] : Arrays.copyOf(zips, capacity);
+		phoneNumbers = phoneNumbers == null ? new long[capacity] : Arrays.copyOf(phoneNumbers, capacity);
+		epochDays = epochDays == null ? new int[capacity] : Arrays.copyOf(epochDays, capacity);
+		addIds = addIds == null ? new int[capacity] : Arrays.copyOf(addIds, capacity);
+		ids = ids == null ? new int[capacity] : Arrays.copyOf(ids, capacity);
+	}
+
+	/**
+	 * Read-only view of one row, reading straight from the columns
+	 */
+	public final class ContactView {
+		private int row;
+
+		private ContactView() {
+		}
+
+		public int getRow() {
+			return row;
+		}
+
+		public String getFirstName() {
+			return text(row, FIRST_NAME);
+		}
+
+		public String getLastName() {
+			return text(row, LAST_NAME);
+		}
+
+		public String getAddress() {
+			return text(row, ADDRESS);
+		}
+
+		public String getCity() {
+			return cities.decode(cityCodes[row]);
+		}
+
+		public String getState() {
+			return states.decode(stateCodes[row]);
+		}
+
+		public long getZip() {
+			return zips[row];
+		}
+
+		public long getPhoneNumber() {
+			return phoneNumbers[row];
+		}
+
+		public String getEmail() {
+			return text(row, EMAIL);
+		}
+
+		public LocalDate getDate() {
+			return epochDays[row] == NO_DATE ? null : LocalDate.ofEpochDay(epochDays[row]);
+		}
+
+		public Contact toContact() {
+			return ColumnarContactStore.this.toContact(row);
+		}
+	}
+}
@@ -0,0 +1,414 @@
+package com.capgemini.addressbookdb;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Bounded pool of physical JDBC connections. Callers get a proxy whose
+ * close() hands the physical connection back to the pool instead of closing
+ * it, so existing try-with-resources code keeps working unchanged. Each
+ * physical connection carries its own {@link StatementCache}.
+ */
+public class ConnectionPool {
+	private static final Logger LOG = LogManager.getLogger(ConnectionPool.class);
+
+	private final ConnectionPoolConfig config;
+	private final Semaphore permits;
+	private final LinkedBlockingDeque<PooledEntry> idleConnections = new LinkedBlockingDeque<>();
+	private final Map<Lease, Boolean> leases = new ConcurrentHashMap<>();
+	private final AtomicInteger totalConnections = new AtomicInteger();
+	private final AtomicLong createdCount = new AtomicLong();
+	private final AtomicLong destroyedCount = new AtomicLong();
+	private final AtomicLong acquiredCount = new AtomicLong();
+	private final AtomicLong acquireTimeoutCount = new AtomicLong();
+	private final AtomicLong validationFailureCount = new AtomicLong();
+	private final AtomicLong leakCount = new AtomicLong();
+	private final AtomicLong acquireWaitNanos = new AtomicLong();
+	private final AtomicLong statementCacheHits = new AtomicLong();
+	private final AtomicLong statementCacheMisses = new AtomicLong();
+	private final AtomicLong statementCacheEvictions = new AtomicLong();
+	private ScheduledExecutorService housekeeper;
+	private volatile boolean closed;
+	private volatile boolean schemaReady;
+
+	public ConnectionPool(ConnectionPoolConfig config) throws DatabaseException {
+		this.config = config;
+		this.schemaReady = !config.isMigrateSchema();
+		this.permits = new Semaphore(config.getMaxPoolSize(), true);
+		try {
+			Class.forName(config.getDriverClassName());
+		} catch (ClassNotFoundException e) {
+			throw new DatabaseException("Unable to load the jdbc driver " + config.getDriverClassName());
+		}
+		if (config.getHousekeepingPeriodMillis() > 0) {
+			housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+				thread.setDaemon(true);
+				return thread;
+			});
+			housekeeper.scheduleWithFixedDelay(this::maintain, 0, config.getHousekeepingPeriodMillis(),
+					TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Borrows a connection, waiting at most the configured acquire timeout
+	 * when every connection is in use. The wait is recorded as the
+	 * "pool.acquire" operation in {@link Metrics}.
+	 *
+	 * @throws DatabaseException
+	 */
+	public Connection getConnection() throws DatabaseException {
+		if (!schemaReady) {
+			this.migrateSchema();
+		}
+		return Metrics.time("pool.acquire", this::acquire);
+	}
+
+	/**
+	 * Brings the schema up to date once, before the first connection is handed
+	 * out, see {@link ConnectionPoolConfig#isMigrateSchema()}. A failure is
+	 * reported to the caller and the migration is tried again on the next
+	 * borrow.
+	 */
+	private synchronized void migrateSchema() throws DatabaseException {
+		if (schemaReady) {
+			return;
+		}
+		try (Connection connection = Metrics.time("pool.acquire", this::acquire)) {
+			int applied = SchemaMigrator.migrate(connection);
+			if (applied > 0) {
+				LOG.info("Applied " + applied + " schema migrations");
+			}
+		} catch (SQLException e) {
+			throw new DatabaseException("Unable to migrate the schema: " + e.getMessage());
+		}
+		schemaReady = true;
+	}
+
+	private Connection acquire() throws DatabaseException {
+		if (closed) {
+			throw new DatabaseException("Connection pool has been shut down");
+		}
+		long start = System.nanoTime();
+		try {
+			if (!permits.tryAcquire(config.getAcquireTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+				acquireTimeoutCount.incrementAndGet();
+				throw new DatabaseException(
+						"Timed out after " + config.getAcquireTimeoutMillis() + "ms waiting for a pooled connection");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DatabaseException("Interrupted while waiting for a pooled connection");
+		}
+		try {
+			PooledEntry entry;
+			while ((entry = idleConnections.pollFirst()) != null) {
+				if (!config.isValidateOnBorrow() || isValid(entry)) {
+					break;
+				}
+				validationFailureCount.incrementAndGet();
+				destroy(entry);
+			}
+			if (entry == null) {
+				entry = create();
+			}
+			if (entry == null) {
+				// the housekeeper raced us to the last slot, its connection lands in the idle set
+				entry = idleConnections.pollFirst(config.getAcquireTimeoutMillis(), TimeUnit.MILLISECONDS);
+				if (entry == null) {
+					throw new DatabaseException("No pooled connection became available");
+				}
+			}
+			acquiredCount.incrementAndGet();
+			acquireWaitNanos.addAndGet(System.nanoTime() - start);
+			return lease(entry);
+		} catch (DatabaseException | RuntimeException e) {
+			permits.release();
+			throw e;
+		} catch (InterruptedException e) {
+			permits.release();
+			Thread.currentThread().interrupt();
+			throw new DatabaseException("Interrupted while waiting for a pooled connection");
+		}
+	}
+
+	/**
+	 * Logs every connection that has been held longer than the leak detection
+	 * threshold, together with the stack of the code that borrowed it.
+	 *
+	 * @return number of leases newly reported as leaked
+	 */
+	public int detectLeaks() {
+		long threshold = config.getLeakDetectionThresholdMillis();
+		if (threshold <= 0) {
+			return 0;
+		}
+		int found = 0;
+		long now = System.currentTimeMillis();
+		for (Lease lease : leases.keySet()) {
+			if (!lease.reportedAsLeak && now - lease.borrowedAt > threshold) {
+				lease.reportedAsLeak = true;
+				leakCount.incrementAndGet();
+				found++;
+				LOG.warn("Connection held for " + (now - lease.borrowedAt) + "ms, possible leak", lease.borrowedBy);
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Housekeeping run: reports leaks, retires connections idle for too long
+	 * and tops the idle set back up to the configured minimum.
+	 */
+	public void maintain() {
+		if (closed) {
+			return;
+		}
+		detectLeaks();
+		long now = System.currentTimeMillis();
+		Iterator<PooledEntry> iterator = idleConnections.descendingIterator();
+		while (iterator.hasNext() && idleConnections.size() > config.getMinIdle()) {
+			PooledEntry entry = iterator.next();
+			if (now - entry.lastReturnedAt > config.getIdleTimeoutMillis() && idleConnections.remove(entry)) {
+				destroy(entry);
+			}
+		}
+		while (idleConnections.size() < config.getMinIdle() && totalConnections.get() < config.getMaxPoolSize()) {
+			try {
+				PooledEntry entry = create();
+				if (entry == null) {
+					break;
+				}
+				idleConnections.offerLast(entry);
+			} catch (DatabaseException e) {
+				LOG.warn("Unable to top up idle connections: " + e.getMessage());
+				break;
+			}
+		}
+	}
+
+	public void shutdown() {
+		closed = true;
+		if (housekeeper != null) {
+			housekeeper.shutdownNow();
+		}
+		PooledEntry entry;
+		while ((entry = idleConnections.pollFirst()) != null) {
+			destroy(entry);
+		}
+	}
+
+	public ConnectionPoolConfig getConfig() {
+		return config;
+	}
+
+	public int getActiveCount() {
+		return leases.size();
+	}
+
+	public int getIdleCount() {
+		return idleConnections.size();
+	}
+
+	public int getTotalCount() {
+		return totalConnections.get();
+	}
+
+	public int getThreadsAwaitingConnection() {
+		return permits.getQueueLength();
+	}
+
+	public long getCreatedCount() {
+		return createdCount.get();
+	}
+
+	public long getDestroyedCount() {
+		return destroyedCount.get();
+	}
+
+	public long getAcquiredCount() {
+		return acquiredCount.get();
+	}
+
+	public long getAcquireTimeoutCount() {
+		return acquireTimeoutCount.get();
+	}
+
+	public long getValidationFailureCount() {
+		return validationFailureCount.get();
+	}
+
+	public long getLeakCount() {
+		return leakCount.get();
+	}
+
+	public long getStatementCacheHits() {
+		return statementCacheHits.get();
+	}
+
+	public long getStatementCacheMisses() {
+		return statementCacheMisses.get();
+	}
+
+	public long getStatementCacheEvictions() {
+		return statementCacheEvictions.get();
+	}
+
+	public double getAverageAcquireMillis() {
+		long acquired = acquiredCount.get();
+		return acquired == 0 ? 0 : acquireWaitNanos.get() / 1_000_000.0 / acquired;
+	}
+
+	@Override
+	public String toString() {
+		return "ConnectionPool[active=" + getActiveCount() + ", idle=" + getIdleCount() + ", total=" + getTotalCount()
+				+ ", waiting=" + getThreadsAwaitingConnection() + ", created=" + getCreatedCount() + ", acquired="
+				+ getAcquiredCount() + ", timeouts=" + getAcquireTimeoutCount() + ", validationFailures="
+				+ getValidationFailureCount() + ", leaks=" + getLeakCount() + ", statementCacheHits="
+				+ getStatementCacheHits() + ", statementCacheMisses=" + getStatementCacheMisses() + "]";
+	}
+
+	private PooledEntry create() throws DatabaseException {
+		if (totalConnections.incrementAndGet() > config.getMaxPoolSize()) {
+			totalConnections.decrementAndGet();
+			return null;
+		}
+		try {
+			Connection connection = DriverManager.getConnection(config.getJdbcURL(), config.getUserName(),
+					config.getPassword());
+			createdCount.incrementAndGet();
+			return new PooledEntry(connection, new StatementCache(connection, config.getStatementCacheSize(),
+					statementCacheHits, statementCacheMisses, statementCacheEvictions));
+		} catch (SQLException e) {
+			totalConnections.decrementAndGet();
+			throw new DatabaseException("Connection was unsuccessful");
+		}
+	}
+
+	private boolean isValid(PooledEntry entry) {
+		try {
+			return entry.connection.isValid(config.getValidationTimeoutSeconds());
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	private void destroy(PooledEntry entry) {
+		totalConnections.decrementAndGet();
+		destroyedCount.incrementAndGet();
+		entry.statementCache.closeAll();
+		try {
+			entry.connection.close();
+		} catch (SQLException e) {
+			LOG.debug("Failed to close pooled connection", e);
+		}
+	}
+
+	private Connection lease(PooledEntry entry) {
+		Lease lease = new Lease(entry);
+		leases.put(lease, Boolean.TRUE);
+		return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+				new Class<?>[] { PooledConnection.class }, lease);
+	}
+
+	private void release(Lease lease) {
+		leases.remove(lease);
+		PooledEntry entry = lease.entry;
+		boolean reusable = !closed;
+		try {
+			if (reusable && !entry.connection.getAutoCommit()) {
+				entry.connection.rollback();
+				entry.connection.setAutoCommit(true);
+			}
+		} catch (SQLException e) {
+			reusable = false;
+		}
+		if (reusable && idleConnections.size() < config.getMaxIdle()) {
+			entry.lastReturnedAt = System.currentTimeMillis();
+			idleConnections.offerFirst(entry);
+		} else {
+			destroy(entry);
+		}
+		permits.release();
+	}
+
+	private static class PooledEntry {
+		final Connection connection;
+		final StatementCache statementCache;
+		volatile long lastReturnedAt = System.currentTimeMillis();
+
+		PooledEntry(Connection connection, StatementCache statementCache) {
+			this.connection = connection;
+			this.statementCache = statementCache;
+		}
+	}
+
+	private class Lease implements InvocationHandler {
+		final PooledEntry entry;
+		final long borrowedAt = System.currentTimeMillis();
+		final Throwable borrowedBy;
+		volatile boolean reportedAsLeak;
+		private boolean returned;
+
+		Lease(PooledEntry entry) {
+			this.entry = entry;
+			this.borrowedBy = config.getLeakDetectionThresholdMillis() > 0
+					? new Throwable("Connection borrowed here")
+					: null;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			synchronized (this) {
+				if ("close".equals(name)) {
+					if (!returned) {
+						returned = true;
+						release(this);
+					}
+					return null;
+				}
+				if ("isClosed".equals(name) && returned) {
+					return true;
+				}
+				if ("equals".equals(name)) {
+					return proxy == args[0];
+				}
+				if ("hashCode".equals(name)) {
+					return System.identityHashCode(proxy);
+				}
+				if (returned) {
+					throw new SQLException("Connection has already been returned to the pool");
+				}
+				if ("prepareCached".equals(name)) {
+					int autoGeneratedKeys = args.length > 1 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+					return entry.statementCache.prepare((String) args[0], autoGeneratedKeys);
+				}
+			}
+			try {
+				return method.invoke(entry.connection, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+	}
+}
@@ -0,0 +1,201 @@
+package com.capgemini.addressbookdb;
+
+import java.util.Properties;
+
+/**
+ * Settings for the {@link ConnectionPool}. Defaults point at the local MySQL
+ * addressBookService schema, every value can be overridden through
+ * {@link #fromProperties(Properties)} using the "db." prefixed keys.
+ */
+public class ConnectionPoolConfig {
+	private String driverClassName = "com.mysql.jdbc.Driver";
+	private String jdbcURL = "jdbc:mysql://localhost:3306/addressBookService?useSSL=false&useServerPrepStmts=true&rewriteBatchedStatements=true";
+	private String userName = "root";
+	private String password = "Jan1998ad";
+	private int maxPoolSize = 10;
+	private int minIdle = 2;
+	private int maxIdle = 10;
+	private long acquireTimeoutMillis = 5000;
+	private int validationTimeoutSeconds = 2;
+	private boolean validateOnBorrow = true;
+	private long leakDetectionThresholdMillis = 60000;
+	private long idleTimeoutMillis = 600000;
+	private long housekeepingPeriodMillis = 30000;
+	private int statementCacheSize = 64;
+	private int streamingFetchSize = 0;
+	private boolean migrateSchema = false;
+
+	public static ConnectionPoolConfig fromProperties(Properties properties) {
+		ConnectionPoolConfig config = new ConnectionPoolConfig();
+		config.driverClassName = properties.getProperty("db.driver", config.driverClassName);
+		config.jdbcURL = properties.getProperty("db.url", config.jdbcURL);
+		config.userName = properties.getProperty("db.user", config.userName);
+		config.password = properties.getProperty("db.password", config.password);
+		config.maxPoolSize = Integer.parseInt(properties.getProperty("db.pool.maxSize", "" + config.maxPoolSize));
+		config.minIdle = Integer.parseInt(properties.getProperty("db.pool.minIdle", "" + config.minIdle));
+		config.maxIdle = Integer.parseInt(properties.getProperty("db.pool.maxIdle", "" + config.maxIdle));
+		config.acquireTimeoutMillis = Long
+				.parseLong(properties.getProperty("db.pool.acquireTimeoutMillis", "" + config.acquireTimeoutMillis));
+		config.validationTimeoutSeconds = Integer.parseInt(
+				properties.getProperty("db.pool.validationTimeoutSeconds", "" + config.validationTimeoutSeconds));
+		config.validateOnBorrow = Boolean
+				.parseBoolean(properties.getProperty("db.pool.validateOnBorrow", "" + config.validateOnBorrow));
+		config.leakDetectionThresholdMillis = Long.parseLong(
+				properties.getProperty("db.pool.leakDetectionThresholdMillis", "" + config.leakDetectionThresholdMillis));
+		config.idleTimeoutMillis = Long
+				.parseLong(properties.getProperty("db.pool.idleTimeoutMillis", "" + config.idleTimeoutMillis));
+		config.housekeepingPeriodMillis = Long.parseLong(
+				properties.getProperty("db.pool.housekeepingPeriodMillis", "" + config.housekeepingPeriodMillis));
+		config.setStatementCacheSize(Integer
+				.parseInt(properties.getProperty("db.pool.statementCacheSize", "" + config.statementCacheSize)));
+		config.streamingFetchSize = Integer
+				.parseInt(properties.getProperty("db.streamingFetchSize", "" + config.streamingFetchSize));
+		config.migrateSchema = Boolean.parseBoolean(properties.getProperty("db.migrateSchema", "true"));
+		return config;
+	}
+
+	public String getDriverClassName() {
+		return driverClassName;
+	}
+
+	public void setDriverClassName(String driverClassName) {
+		this.driverClassName = driverClassName;
+	}
+
+	public String getJdbcURL() {
+		return jdbcURL;
+	}
+
+	public void setJdbcURL(String jdbcURL) {
+		this.jdbcURL = jdbcURL;
+	}
+
+	public String getUserName() {
+		return userName;
+	}
+
+	public void setUserName(String userName) {
+		this.userName = userName;
+	}
+
+	public String getPassword() {
+		return password;
+	}
+
+	public void setPassword(String password) {
+		this.password = password;
+	}
+
+	public int getMaxPoolSize() {
+		return maxPoolSize;
+	}
+
+	public void setMaxPoolSize(int maxPoolSize) {
+		this.maxPoolSize = maxPoolSize;
+	}
+
+	public int getMinIdle() {
+		return minIdle;
+	}
+
+	public void setMinIdle(int minIdle) {
+		this.minIdle = minIdle;
+	}
+
+	public int getMaxIdle() {
+		return maxIdle;
+	}
+
+	public void setMaxIdle(int maxIdle) {
+		this.maxIdle = maxIdle;
+	}
+
+	public long getAcquireTimeoutMillis() {
+		return acquireTimeoutMillis;
+	}
+
+	public void setAcquireTimeoutMillis(long acquireTimeoutMillis) {
+		this.acquireTimeoutMillis = acquireTimeoutMillis;
+	}
+
+	public int getValidationTimeoutSeconds() {
+		return validationTimeoutSeconds;
+	}
+
+	public void setValidationTimeoutSeconds(int validationTimeoutSeconds) {
+		this.validationTimeoutSeconds = validationTimeoutSeconds;
+	}
+
+	public boolean isValidateOnBorrow() {
+		return validateOnBorrow;
+	}
+
+	public void setValidateOnBorrow(boolean validateOnBorrow) {
+		this.validateOnBorrow = validateOnBorrow;
+	}
+
+	public long getLeakDetectionThresholdMillis() {
+		return leakDetectionThresholdMillis;
+	}
+
+	public void setLeakDetectionThresholdMillis(long leakDetectionThresholdMillis) {
+		this.leakDetectionThresholdMillis = leakDetectionThresholdMillis;
+	}
+
+	public long getIdleTimeoutMillis() {
+		return idleTimeoutMillis;
+	}
+
+	public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+		this.idleTimeoutMillis = idleTimeoutMillis;
+	}
+
+	public long getHousekeepingPeriodMillis() {
+		return housekeepingPeriodMillis;
+	}
+
+	public void setHousekeepingPeriodMillis(long housekeepingPeriodMillis) {
+		this.housekeepingPeriodMillis = housekeepingPeriodMillis;
+	}
+
+	public int getStatementCacheSize() {
+		return statementCacheSize;
+	}
+
+	/**
+	 * @param statementCacheSize prepared statements kept per connection, at
+	 *                           least 1 since the pool owns and closes every
+	 *                           statement handed out by prepareCached
+	 */
+	public void setStatementCacheSize(int statementCacheSize) {
+		if (statementCacheSize <= 0) {
+			throw new IllegalArgumentException("Statement cache size must be positive: " + statementCacheSize);
+		}
+		this.statementCacheSize = statementCacheSize;
+	}
+
+	/**
+	 * Fetch size used by streaming reads, 0 picks the driver's streaming mode
+	 * (Integer.MIN_VALUE for MySQL)
+	 */
+	public int getStreamingFetchSize() {
+		return streamingFetchSize;
+	}
+
+	public void setStreamingFetchSize(int streamingFetchSize) {
+		this.streamingFetchSize = streamingFetchSize;
+	}
+
+	/**
+	 * When set, the pool runs {@link SchemaMigrator} before handing out its
+	 * first connection. Off for configs built in code, on by default for
+	 * {@link #fromProperties(Properties)}, which the application uses.
+	 */
+	public boolean isMigrateSchema() {
+		return migrateSchema;
+	}
+
+	public void setMigrateSchema(boolean migrateSchema) {
+		this.migrateSchema = migrateSchema;
+	}
+}
@@ -15,12 +15,18 @@ public class Contact{
 	public int addId;
 	public LocalDate date;
 	public int id;
+	private transient boolean dirty;
+	private transient boolean exported;
+	private transient String exportedFirstName;
+	private transient String exportedLastName;
+	private transient String exportedCity;
+	private transient NameKey nameKey;
 	public Contact(String firstName,String lastName,String address,String city,String state,long zip,long phoneNumber,String email) {
 	    this.firstName = firstName;
 	    this.lastName = lastName;
 	    this.address = address;
-	    this.city = city;
-	    this.state = state;
+	    this.city = StringDictionary.CITIES.canonical(city);
+	    this.state = StringDictionary.STATES.canonical(state);
 	    this.zip = zip;
 	    this.phoneNumber = phoneNumber;
 	    this.email = email;
@@ -37,21 +43,121 @@ public class Contact{
 	    this.id = id;
 	    this.date = date;
 	}
+	/**
+	 * Copies every stored field of the contact, ids and date included
+	 */
+	public Contact(Contact other) {
+	    this(other.firstName,other.lastName,other.address,other.city,other.state,other.zip,other.phoneNumber,other.email,other.date,other.addId);
+	    this.id = other.id;
+	}
+	/**
+	 * Hashes the names only, as equals compares them and nothing else
+	 */
 	@Override
 	public int hashCode() {
-		return Objects.hash(firstName, lastName, address, phoneNumber);
+		return 31 * Objects.hashCode(firstName) + Objects.hashCode(lastName);
+	}
+	/**
+	 * 64-bit hash over every stored field: names, address, city, state, zip,
+	 * phone number, email and date. Unlike equals, which only compares the
+	 * name, two contacts with different data practically never share it.
+	 * The ids and the address book are left out.
+	 */
+	public long contentHash() {
+		long hash = 1125899906842597L;
+		hash = mix(hash, firstName);
+		hash = mix(hash, lastName);
+		hash = mix(hash, address);
+		hash = mix(hash, city);
+		hash = mix(hash, state);
+		hash = 31 * hash + zip;
+		hash = 31 * hash + phoneNumber;
+		hash = mix(hash, email);
+		hash = 31 * hash + (date == null ? -1 : date.toEpochDay());
+		return hash;
+	}
+	private static long mix(long hash, String value) {
+	    if (value == null) {
+		return 31 * hash - 1;
+	    }
+	    hash = 31 * hash + value.length();
+	    for (int i = 0; i < value.length(); i++) {
+		hash = 31 * hash + value.charAt(i);
+	    }
+	    return hash;
 	}
 	@Override
 	public boolean equals(Object o) {
-	    boolean result = false;
 	    if(o == this) {
 		return true;
 	    }
+	    if(!(o instanceof Contact)) {
+		return false;
+	    }
 	    Contact c = (Contact)o;
-	    if(c.firstName.equals(this.firstName) && c.lastName.equals(this.lastName)) {
-		result = true;
+	    return Objects.equals(c.firstName, this.firstName) && Objects.equals(c.lastName, this.lastName);
+	}
+	/**
+	 * @return true when a setter changed the contact since the last
+	 *         {@link #clearDirty()}. Writes to the public fields are not seen.
+	 */
+	public boolean isDirty() {
+	    return dirty;
+	}
+
+	/**
+	 * Clears the dirty flag and remembers the names and city as the ones last
+	 * exported, see {@link #getExportedKey()}
+	 */
+	public void clearDirty() {
+	    this.dirty = false;
+	    this.exported = true;
+	    this.exportedFirstName = firstName;
+	    this.exportedLastName = lastName;
+	    this.exportedCity = city;
+	}
+	/**
+	 * @return a contact holding only the names and city this contact had at
+	 *         the last {@link #clearDirty()}, when a setter has changed any of
+	 *         them since; null when they are unchanged or the contact was never
+	 *         exported
+	 */
+	public Contact getExportedKey() {
+	    if (!exported || (Objects.equals(exportedFirstName, firstName) && Objects.equals(exportedLastName, lastName)
+		    && Objects.equals(exportedCity, city))) {
+		return null;
+	    }
+	    return new Contact(exportedFirstName, exportedLastName, null, exportedCity, null, 0, 0, null);
+	}
+	/**
+	 * "firstName lastName", the order of {@link SortByName}. Built on first use
+	 * and kept until either name is replaced, so sorting a book again
+	 * allocates nothing.
+	 */
+	public String getNameKey() {
+	    NameKey key = nameKey;
+	    String first = firstName;
+	    String last = lastName;
+	    if (key == null || key.firstName != first || key.lastName != last) {
+		key = new NameKey(first, last);
+		nameKey = key;
+	    }
+	    return key.key;
+	}
+	/**
+	 * The key with the names it was built from, published through one field
+	 * so threads sorting in parallel never see a key paired with other names
+	 */
+	private static final class NameKey {
+	    final String firstName;
+	    final String lastName;
+	    final String key;
+
+	    NameKey(String firstName, String lastName) {
+		this.firstName = firstName;
+		this.lastName = lastName;
+		this.key = firstName + " " + lastName;
 	    }
-	    return result;
 	}
 	public String getFirstName() {
 	    return firstName;
@@ -59,6 +165,7 @@ public class Contact{
 
 	public void setFirstName(String firstName) {
 	    this.firstName = firstName;
+	    this.dirty = true;
 	}
 		
 	public String getLastName() {
@@ -67,6 +174,7 @@ public class Contact{
 
 	public void setLastName(String lastName) {
 	    this.lastName = lastName;
+	    this.dirty = true;
 	}
 
 	public String getAddress() {
@@ -75,6 +183,7 @@ public class Contact{
 
 	public void setAddress(String address) {
 	    this.address = address;
+	    this.dirty = true;
 	}
 
 	public String getCity() {
@@ -82,7 +191,8 @@ public class Contact{
 	}
 
 	public void setCity(String city) {
-	    this.city = city;
+	    this.city = StringDictionary.CITIES.canonical(city);
+	    this.dirty = true;
 	}
 
 	public String getState() {
@@ -90,7 +200,8 @@ public class Contact{
 	}
 
 	public void setState(String state) {
-	    this.state = state;
+	    this.state = StringDictionary.STATES.canonical(state);
+	    this.dirty = true;
 	}
 
 	public long getZip() {
@@ -99,6 +210,7 @@ public class Contact{
 
 	public void setZip(long zip) {
 	    this.zip = zip;
+	    this.dirty = true;
 	}
 
 	public long getPhoneNumber() {
@@ -107,6 +219,7 @@ public class Contact{
 
 	public void setPhoneNumber(long phoneNumber) {
 	    this.phoneNumber = phoneNumber;
+	    this.dirty = true;
 	}
 
 	public String getEmail() {
@@ -115,6 +228,7 @@ public class Contact{
 
 	public void setEmail(String email) {
 	    this.email = email;
+	    this.dirty = true;
 	}
 	public String toString() {
 		return this.getFirstName() + ", " + this.getLastName() + ", " + this.getAddress() + ", " + this.getCity() 
@@ -0,0 +1,27 @@
+package com.capgemini.addressbookdb;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Contacts inserted or updated since a high-water mark, together with the
+ * mark to ask from next time
+ */
+public class ContactChangeSet {
+	private final List<Contact> contacts;
+	private final Timestamp highWaterMark;
+
+	public ContactChangeSet(List<Contact> contacts, Timestamp highWaterMark) {
+		this.contacts = Collections.unmodifiableList(contacts);
+		this.highWaterMark = highWaterMark;
+	}
+
+	public List<Contact> getContacts() {
+		return contacts;
+	}
+
+	public Timestamp getHighWaterMark() {
+		return highWaterMark;
+	}
+}
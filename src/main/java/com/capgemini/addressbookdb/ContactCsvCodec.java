@@ -0,0 +1,180 @@
+package com.capgemini.addressbookdb;
+
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads and writes contact CSV files in UTF-8 through
+ * {@link ContactCsvWriter} and {@link ContactCsvReader}. Large files can be
+ * parsed in parallel: the file is memory mapped and cut into chunks at line
+ * breaks, every chunk is parsed on its own thread and the results are
+ * joined in file order. Chunks are cut at raw line breaks, so files with line
+ * breaks inside quoted fields must be read with {@link #readAll(Path)}.
+ */
+public final class ContactCsvCodec {
+	public static final String[] HEADER = { "firstName", "lastName", "address", "city", "state", "zip",
+			"phoneNumber", "email", "date" };
+	private static final long MIN_CHUNK_BYTES = 1 << 20;
+	private static final AtomicInteger PARSER_COUNT = new AtomicInteger();
+
+	private ContactCsvCodec() {
+	}
+
+	/**
+	 * Writes a header row and then the contacts, streaming as it goes
+	 */
+	public static void write(Path path, Iterable<Contact> contacts) throws IOException {
+		try (ContactCsvWriter writer = new ContactCsvWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+			writer.writeHeader();
+			writer.writeAll(contacts);
+		}
+	}
+
+	/**
+	 * Opens a streaming reader, the caller closes it
+	 */
+	public static ContactCsvReader open(Path path) throws IOException {
+		return new ContactCsvReader(Files.newBufferedReader(path, StandardCharsets.UTF_8));
+	}
+
+	public static List<Contact> readAll(Path path) throws IOException {
+		try (ContactCsvReader reader = open(path)) {
+			List<Contact> contacts = new ArrayList<>();
+			while (reader.hasNext()) {
+				contacts.add(reader.next());
+			}
+			return contacts;
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Parses the file with up to the given number of threads, each chunk
+	 * being at least 1 MB. Small files and files over 2 GB are read
+	 * sequentially.
+	 *
+	 * @return the contacts in file order
+	 */
+	public static List<Contact> readParallel(Path path, int parallelism) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			int chunks = (int) Math.min(parallelism, size / MIN_CHUNK_BYTES);
+			if (chunks < 2 || size > Integer.MAX_VALUE) {
+				return readAll(path);
+			}
+			MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			int[] bounds = chunkBounds(file, chunks);
+			int parserId = PARSER_COUNT.incrementAndGet();
+			AtomicInteger threadCount = new AtomicInteger();
+			ExecutorService executor = Executors.newFixedThreadPool(chunks, runnable -> {
+				Thread thread = new Thread(runnable, "csv-parser-" + parserId + "-" + threadCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+			try {
+				long[] firstLines = firstLines(file, bounds, executor);
+				List<CompletableFuture<List<Contact>>> parts = new ArrayList<>(chunks);
+				for (int i = 0; i < chunks; i++) {
+					int start = bounds[i];
+					int end = bounds[i + 1];
+					boolean first = i == 0;
+					long firstLine = firstLines[i];
+					parts.add(CompletableFuture.supplyAsync(() -> parseChunk(file, start, end, first, firstLine),
+							executor));
+				}
+				List<Contact> contacts = new ArrayList<>();
+				for (CompletableFuture<List<Contact>> part : parts) {
+					contacts.addAll(part.join());
+				}
+				return contacts;
+			} catch (CompletionException e) {
+				if (e.getCause() instanceof UncheckedIOException) {
+					throw ((UncheckedIOException) e.getCause()).getCause();
+				}
+				throw e;
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+	}
+
+	/**
+	 * Splits the file into roughly equal byte ranges, moving every cut past
+	 * the next line break. A '\n' byte never occurs inside a multi-byte UTF-8
+	 * sequence, so every chunk decodes on its own.
+	 */
+	private static int[] chunkBounds(ByteBuffer file, int chunks) {
+		int size = file.limit();
+		int[] bounds = new int[chunks + 1];
+		bounds[chunks] = size;
+		for (int i = 1; i < chunks; i++) {
+			int cut = Math.max((int) ((long) size * i / chunks), bounds[i - 1]);
+			while (cut < size && file.get(cut) != '\n') {
+				cut++;
+			}
+			bounds[i] = Math.min(cut + 1, size);
+		}
+		return bounds;
+	}
+
+	/**
+	 * Counts the line breaks of every chunk in parallel, so each chunk's
+	 * parser can report rows by their line in the whole file
+	 *
+	 * @return the line number each chunk starts on
+	 */
+	private static long[] firstLines(ByteBuffer file, int[] bounds, ExecutorService executor) {
+		int chunks = bounds.length - 1;
+		List<CompletableFuture<Long>> counts = new ArrayList<>(chunks);
+		for (int i = 0; i < chunks - 1; i++) {
+			int start = bounds[i];
+			int end = bounds[i + 1];
+			counts.add(CompletableFuture.supplyAsync(() -> {
+				long lineBreaks = 0;
+				for (int position = start; position < end; position++) {
+					if (file.get(position) == '\n') {
+						lineBreaks++;
+					}
+				}
+				return lineBreaks;
+			}, executor));
+		}
+		long[] firstLines = new long[chunks];
+		firstLines[0] = 1;
+		for (int i = 1; i < chunks; i++) {
+			firstLines[i] = firstLines[i - 1] + counts.get(i - 1).join();
+		}
+		return firstLines;
+	}
+
+	private static List<Contact> parseChunk(ByteBuffer file, int start, int end, boolean first, long firstLine) {
+		ByteBuffer chunk = file.duplicate();
+		chunk.limit(end);
+		chunk.position(start);
+		CharBuffer chars = StandardCharsets.UTF_8.decode(chunk);
+		ContactCsvReader reader = new ContactCsvReader(
+				new CharArrayReader(chars.array(), chars.arrayOffset(), chars.remaining()), first, firstLine);
+		List<Contact> contacts = new ArrayList<>();
+		while (reader.hasNext()) {
+			contacts.add(reader.next());
+		}
+		return contacts;
+	}
+}
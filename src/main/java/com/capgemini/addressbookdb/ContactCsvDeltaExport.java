@@ -0,0 +1,194 @@
+package com.capgemini.addressbookdb;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Incremental CSV export of the address books. A full export writes the
+ * base file; a delta export only writes the contacts the books report as
+ * changed or deleted since the previous export, into numbered files next to
+ * the base. A manifest lists the base and the deltas in order:
+ *
+ * <pre>
+ * AddressBook.csv            base, every contact
+ * AddressBook.csv.1          contacts added or changed by delta 1
+ * AddressBook.csv.1.deleted  contacts deleted by delta 1
+ * AddressBook.csv.manifest   "base AddressBook.csv" then "delta 1 3 1" per delta
+ * </pre>
+ *
+ * The delta lines carry the sequence number and the changed and deleted
+ * counts. Contacts are matched by city and by first and last name: the books
+ * are per city and {@link AddressBook#addContact(Contact)} keeps names unique
+ * within a book, so people of the same name in two cities stay apart. A
+ * contact renamed or moved to another city is written under its new key and
+ * deleted under the one it was last exported with.
+ * Reading applies the deltas over the base; {@link #merge(Path)} folds them
+ * into a new base.
+ */
+public final class ContactCsvDeltaExport {
+	private static final String BASE = "base";
+	private static final String DELTA = "delta";
+
+	private ContactCsvDeltaExport() {
+	}
+
+	/**
+	 * Writes every contact to the base file, drops any delta and marks the
+	 * books as exported
+	 *
+	 * @return number of contacts written
+	 */
+	public static int writeFull(Path csv, Map<String, AddressBook> cityBookMap) throws IOException {
+		List<Contact> contacts = new ArrayList<>();
+		for (AddressBook book : cityBookMap.values()) {
+			contacts.addAll(book.getContactList());
+		}
+		replaceBase(csv, contacts);
+		cityBookMap.values().forEach(AddressBook::markExported);
+		return contacts.size();
+	}
+
+	/**
+	 * Writes the changes since the previous export as the next delta, or a
+	 * full export when there is no base yet. Nothing is written when nothing
+	 * changed.
+	 *
+	 * @return number of changed and deleted contacts written
+	 */
+	public static int writeDelta(Path csv, Map<String, AddressBook> cityBookMap) throws IOException {
+		Path manifest = manifest(csv);
+		if (!Files.exists(manifest) || !Files.exists(csv)) {
+			return writeFull(csv, cityBookMap);
+		}
+		List<Contact> changed = new ArrayList<>();
+		List<Contact> deleted = new ArrayList<>();
+		for (AddressBook book : cityBookMap.values()) {
+			changed.addAll(book.getChangedContacts());
+			deleted.addAll(book.getDeletedContacts());
+		}
+		if (changed.isEmpty() && deleted.isEmpty()) {
+			return 0;
+		}
+		List<Integer> deltas = readManifest(csv);
+		int sequence = deltas.isEmpty() ? 1 : deltas.get(deltas.size() - 1) + 1;
+		ContactCsvCodec.write(delta(csv, sequence), changed);
+		if (!deleted.isEmpty()) {
+			ContactCsvCodec.write(deleted(csv, sequence), deleted);
+		}
+		Files.write(manifest, (DELTA + " " + sequence + " " + changed.size() + " " + deleted.size() + "\n")
+				.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+		cityBookMap.values().forEach(AddressBook::markExported);
+		return changed.size() + deleted.size();
+	}
+
+	/**
+	 * @return the base contacts with every delta applied, in base order with
+	 *         new contacts at the end
+	 */
+	public static List<Contact> readMerged(Path csv) throws IOException {
+		return applyDeltas(csv, ContactCsvCodec.readAll(csv));
+	}
+
+	/**
+	 * Applies the deltas listed in the manifest, if any, to the given base
+	 * contacts
+	 */
+	public static List<Contact> applyDeltas(Path csv, List<Contact> base) throws IOException {
+		if (!Files.exists(manifest(csv))) {
+			return base;
+		}
+		List<Integer> deltas = readManifest(csv);
+		if (deltas.isEmpty()) {
+			return base;
+		}
+		Map<List<String>, Contact> byName = new LinkedHashMap<>();
+		for (Contact contact : base) {
+			byName.put(key(contact), contact);
+		}
+		for (int sequence : deltas) {
+			Path deleted = deleted(csv, sequence);
+			if (Files.exists(deleted)) {
+				for (Contact contact : ContactCsvCodec.readAll(deleted)) {
+					byName.remove(key(contact));
+				}
+			}
+			for (Contact contact : ContactCsvCodec.readAll(delta(csv, sequence))) {
+				byName.put(key(contact), contact);
+			}
+		}
+		return new ArrayList<>(byName.values());
+	}
+
+	/**
+	 * Folds the deltas into a new base file and removes them
+	 *
+	 * @return number of contacts in the new base
+	 */
+	public static int merge(Path csv) throws IOException {
+		List<Contact> merged = readMerged(csv);
+		replaceBase(csv, merged);
+		return merged.size();
+	}
+
+	/**
+	 * Swaps in a new base atomically, then resets the manifest and removes the
+	 * delta files it listed
+	 */
+	private static void replaceBase(Path csv, List<Contact> contacts) throws IOException {
+		List<Integer> deltas = Files.exists(manifest(csv)) ? readManifest(csv) : new ArrayList<>();
+		Path temporary = csv.resolveSibling(csv.getFileName() + ".tmp");
+		ContactCsvCodec.write(temporary, contacts);
+		Files.move(temporary, csv, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		Files.write(manifest(csv), (BASE + " " + csv.getFileName() + "\n").getBytes(StandardCharsets.UTF_8));
+		for (int sequence : deltas) {
+			Files.deleteIfExists(delta(csv, sequence));
+			Files.deleteIfExists(deleted(csv, sequence));
+		}
+	}
+
+	/**
+	 * @return the delta sequence numbers in the order they were written
+	 */
+	private static List<Integer> readManifest(Path csv) throws IOException {
+		List<Integer> deltas = new ArrayList<>();
+		for (String line : Files.readAllLines(manifest(csv), StandardCharsets.UTF_8)) {
+			String[] parts = line.trim().split(" ");
+			if (parts[0].equals(DELTA)) {
+				try {
+					deltas.add(Integer.parseInt(parts[1]));
+				} catch (RuntimeException e) {
+					throw new IOException("Invalid line in " + manifest(csv) + ": " + line);
+				}
+			} else if (!parts[0].equals(BASE) && !parts[0].isEmpty()) {
+				throw new IOException("Invalid line in " + manifest(csv) + ": " + line);
+			}
+		}
+		return deltas;
+	}
+
+	private static List<String> key(Contact contact) {
+		return Arrays.asList(StringDictionary.CITIES.folded(contact.getCity()), contact.getFirstName(),
+				contact.getLastName());
+	}
+
+	private static Path manifest(Path csv) {
+		return csv.resolveSibling(csv.getFileName() + ".manifest");
+	}
+
+	private static Path delta(Path csv, int sequence) {
+		return csv.resolveSibling(csv.getFileName() + "." + sequence);
+	}
+
+	private static Path deleted(Path csv, int sequence) {
+		return csv.resolveSibling(csv.getFileName() + "." + sequence + ".deleted");
+	}
+}
@@ -0,0 +1,310 @@
+package com.capgemini.addressbookdb;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Streams contacts out of CSV written by {@link ContactCsvWriter}, holding
+ * only one row in memory. Fields are parsed from a reused char buffer:
+ * numbers and dates never become strings, text fields become exactly one
+ * string each. A leading header row is skipped, blank lines are ignored and
+ * the date column may be missing. Malformed input surfaces as an
+ * {@link UncheckedIOException} naming the line the row starts on.
+ */
+public class ContactCsvReader implements Iterator<Contact>, Closeable {
+	private final Reader in;
+	private final char[] buffer = new char[64 * 1024];
+	private int position;
+	private int limit;
+	private char[] field = new char[128];
+	private int fieldLength;
+	private boolean fieldQuoted;
+	private boolean headerAllowed;
+	private final long firstLine;
+	private long lineBreaks;
+	private long row;
+	private Contact next;
+	private boolean finished;
+
+	public ContactCsvReader(Reader in) {
+		this(in, true, 1);
+	}
+
+	/**
+	 * @param headerAllowed false for chunks of a file that start mid-file
+	 * @param firstLine     line number of the first line in the file, for
+	 *                      error messages
+	 */
+	ContactCsvReader(Reader in, boolean headerAllowed, long firstLine) {
+		this.in = in;
+		this.headerAllowed = headerAllowed;
+		this.firstLine = firstLine;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (next == null && !finished) {
+			try {
+				next = this.readContact();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			finished = next == null;
+		}
+		return next != null;
+	}
+
+	@Override
+	public Contact next() {
+		if (!this.hasNext()) {
+			throw new NoSuchElementException();
+		}
+		Contact contact = next;
+		next = null;
+		return contact;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	private Contact readContact() throws IOException {
+		while (true) {
+			int c = this.peek();
+			if (c == -1) {
+				return null;
+			}
+			if (c != '\n' && c != '\r') {
+				break;
+			}
+			if (c == '\n') {
+				lineBreaks++;
+			}
+			position++;
+		}
+		row = firstLine + lineBreaks;
+		Contact contact = new Contact(null, null, null, null, null, 0, 0, null);
+		int column = 0;
+		boolean more;
+		do {
+			more = this.readField();
+			switch (column++) {
+			case 0:
+				if (headerAllowed && !fieldQuoted && this.fieldEquals(ContactCsvCodec.HEADER[0])) {
+					this.skipRecord(more);
+					headerAllowed = false;
+					return this.readContact();
+				}
+				contact.firstName = this.stringValue();
+				break;
+			case 1:
+				contact.lastName = this.stringValue();
+				break;
+			case 2:
+				contact.address = this.stringValue();
+				break;
+			case 3:
+				contact.city = StringDictionary.CITIES.canonical(this.stringValue());
+				break;
+			case 4:
+				contact.state = StringDictionary.STATES.canonical(this.stringValue());
+				break;
+			case 5:
+				contact.zip = this.longValue();
+				break;
+			case 6:
+				contact.phoneNumber = this.longValue();
+				break;
+			case 7:
+				contact.email = this.stringValue();
+				break;
+			case 8:
+				contact.date = this.dateValue();
+				break;
+			default:
+				break;
+			}
+		} while (more);
+		headerAllowed = false;
+		if (column < 8) {
+			throw new IOException("Row on line " + row + " has " + column + " fields, expected at least 8");
+		}
+		return contact;
+	}
+
+	/**
+	 * Reads one field into the field buffer
+	 *
+	 * @return true when another field of the same row follows
+	 */
+	private boolean readField() throws IOException {
+		fieldLength = 0;
+		fieldQuoted = false;
+		int c = this.read();
+		if (c == '"') {
+			fieldQuoted = true;
+			while (true) {
+				c = this.read();
+				if (c == -1) {
+					throw new IOException("Unterminated quoted field in row on line " + row);
+				}
+				if (c == '\n') {
+					lineBreaks++;
+				}
+				if (c == '"') {
+					if (this.peek() != '"') {
+						break;
+					}
+					position++;
+				}
+				this.append((char) c);
+			}
+			c = this.read();
+		} else {
+			while (c != ',' && c != '\n' && c != '\r' && c != -1) {
+				this.append((char) c);
+				c = this.read();
+			}
+		}
+		if (c == ',') {
+			return true;
+		}
+		if (c == '\n') {
+			lineBreaks++;
+		} else if (c == '\r' && this.peek() == '\n') {
+			position++;
+			lineBreaks++;
+		} else if (c != '\r' && c != -1) {
+			throw new IOException("Unexpected character after a quoted field in row on line " + row);
+		}
+		return false;
+	}
+
+	private void skipRecord(boolean more) throws IOException {
+		while (more) {
+			more = this.readField();
+		}
+	}
+
+	private int read() throws IOException {
+		if (position == limit && !this.fill()) {
+			return -1;
+		}
+		return buffer[position++];
+	}
+
+	private int peek() throws IOException {
+		if (position == limit && !this.fill()) {
+			return -1;
+		}
+		return buffer[position];
+	}
+
+	private boolean fill() throws IOException {
+		int read;
+		do {
+			read = in.read(buffer, 0, buffer.length);
+		} while (read == 0);
+		position = 0;
+		limit = Math.max(read, 0);
+		return read > 0;
+	}
+
+	private void append(char c) {
+		if (fieldLength == field.length) {
+			char[] grown = new char[field.length * 2];
+			System.arraycopy(field, 0, grown, 0, fieldLength);
+			field = grown;
+		}
+		field[fieldLength++] = c;
+	}
+
+	private boolean fieldEquals(String value) {
+		if (fieldLength != value.length()) {
+			return false;
+		}
+		for (int i = 0; i < fieldLength; i++) {
+			if (field[i] != value.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private String stringValue() {
+		return fieldLength == 0 && !fieldQuoted ? null : new String(field, 0, fieldLength);
+	}
+
+	private long longValue() throws IOException {
+		if (fieldLength == 0) {
+			return 0;
+		}
+		boolean negative = field[0] == '-';
+		int i = negative ? 1 : 0;
+		if (i == fieldLength || fieldLength - i > 19) {
+			throw this.invalid("number");
+		}
+		long value = 0;
+		for (; i < fieldLength; i++) {
+			int digit = field[i] - '0';
+			if (digit < 0 || digit > 9) {
+				throw this.invalid("number");
+			}
+			value = value * 10 + digit;
+		}
+		if (value < 0) {
+			throw this.invalid("number");
+		}
+		return negative ? -value : value;
+	}
+
+	private LocalDate dateValue() throws IOException {
+		if (fieldLength == 0) {
+			return null;
+		}
+		if (fieldLength == 10 && field[4] == '-' && field[7] == '-') {
+			int year = this.digits(0, 4);
+			int month = this.digits(5, 7);
+			int day = this.digits(8, 10);
+			if (year >= 0 && month >= 0 && day >= 0) {
+				try {
+					return LocalDate.of(year, month, day);
+				} catch (RuntimeException e) {
+					throw this.invalid("date");
+				}
+			}
+		}
+		try {
+			return LocalDate.parse(new String(field, 0, fieldLength));
+		} catch (DateTimeParseException e) {
+			throw this.invalid("date");
+		}
+	}
+
+	/**
+	 * @return the decimal value of field[from, to), or -1 if a char is not a
+	 *         digit
+	 */
+	private int digits(int from, int to) {
+		int value = 0;
+		for (int i = from; i < to; i++) {
+			int digit = field[i] - '0';
+			if (digit < 0 || digit > 9) {
+				return -1;
+			}
+			value = value * 10 + digit;
+		}
+		return value;
+	}
+
+	private IOException invalid(String type) {
+		return new IOException("Invalid " + type + " '" + new String(field, 0, fieldLength) + "' in row on line " + row);
+	}
+}
@@ -0,0 +1,140 @@
+package com.capgemini.addressbookdb;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+
+/**
+ * Writes contacts as RFC 4180 CSV rows, one row per contact in the column
+ * order of {@link ContactCsvCodec#HEADER}. Fields go straight from the
+ * contact to the writer: numbers and dates are formatted into a reused char
+ * buffer and only fields containing a comma, quote or line break are quoted.
+ * A null string is written as an empty field, an empty string as "".
+ */
+public class ContactCsvWriter implements Closeable, Flushable {
+	private final Writer out;
+	private final char[] digits = new char[20];
+
+	/**
+	 * @param out should be buffered, every field is a separate write
+	 */
+	public ContactCsvWriter(Writer out) {
+		this.out = out;
+	}
+
+	public void writeHeader() throws IOException {
+		for (int i = 0; i < ContactCsvCodec.HEADER.length; i++) {
+			if (i > 0) {
+				out.write(',');
+			}
+			out.write(ContactCsvCodec.HEADER[i]);
+		}
+		out.write('\n');
+	}
+
+	public void write(Contact contact) throws IOException {
+		this.writeString(contact.getFirstName());
+		out.write(',');
+		this.writeString(contact.getLastName());
+		out.write(',');
+		this.writeString(contact.getAddress());
+		out.write(',');
+		this.writeString(contact.getCity());
+		out.write(',');
+		this.writeString(contact.getState());
+		out.write(',');
+		this.writeLong(contact.getZip());
+		out.write(',');
+		this.writeLong(contact.getPhoneNumber());
+		out.write(',');
+		this.writeString(contact.getEmail());
+		out.write(',');
+		this.writeDate(contact.date);
+		out.write('\n');
+	}
+
+	public void writeAll(Iterable<Contact> contacts) throws IOException {
+		for (Contact contact : contacts) {
+			this.write(contact);
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+
+	private void writeString(String value) throws IOException {
+		if (value == null) {
+			return;
+		}
+		int length = value.length();
+		boolean quote = length == 0;
+		for (int i = 0; i < length && !quote; i++) {
+			char c = value.charAt(i);
+			quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+		}
+		if (!quote) {
+			out.write(value, 0, length);
+			return;
+		}
+		out.write('"');
+		int from = 0;
+		for (int i = 0; i < length; i++) {
+			if (value.charAt(i) == '"') {
+				out.write(value, from, i + 1 - from);
+				out.write('"');
+				from = i + 1;
+			}
+		}
+		out.write(value, from, length - from);
+		out.write('"');
+	}
+
+	private void writeLong(long value) throws IOException {
+		if (value == Long.MIN_VALUE) {
+			out.write(Long.toString(value));
+			return;
+		}
+		boolean negative = value < 0;
+		long remaining = negative ? -value : value;
+		int position = digits.length;
+		do {
+			digits[--position] = (char) ('0' + remaining % 10);
+			remaining /= 10;
+		} while (remaining != 0);
+		if (negative) {
+			digits[--position] = '-';
+		}
+		out.write(digits, position, digits.length - position);
+	}
+
+	private void writeDate(LocalDate date) throws IOException {
+		if (date == null) {
+			return;
+		}
+		int year = date.getYear();
+		if (year < 0 || year > 9999) {
+			out.write(date.toString());
+			return;
+		}
+		digits[0] = (char) ('0' + year / 1000);
+		digits[1] = (char) ('0' + year / 100 % 10);
+		digits[2] = (char) ('0' + year / 10 % 10);
+		digits[3] = (char) ('0' + year % 10);
+		digits[4] = '-';
+		digits[5] = (char) ('0' + date.getMonthValue() / 10);
+		digits[6] = (char) ('0' + date.getMonthValue() % 10);
+		digits[7] = '-';
+		digits[8] = (char) ('0' + date.getDayOfMonth() / 10);
+		digits[9] = (char) ('0' + date.getDayOfMonth() % 10);
+		out.write(digits, 0, 10);
+	}
+}
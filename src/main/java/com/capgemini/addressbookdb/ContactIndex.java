@@ -0,0 +1,109 @@
+package com.capgemini.addressbookdb;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Case-insensitive city and state index over the contacts of every
+ * {@link AddressBook} that shares it. The books keep it current from
+ * addContact, editContact and deleteContact, so searches only touch the
+ * matching contacts and counts are read straight from the index. Keys are
+ * the lower case forms cached by {@link StringDictionary#CITIES} and
+ * {@link StringDictionary#STATES}, so indexing a contact allocates no key.
+ */
+public class ContactIndex {
+	private final Map<String, List<Contact>> byCity = new ConcurrentHashMap<>();
+	private final Map<String, List<Contact>> byState = new ConcurrentHashMap<>();
+
+	public void add(Contact contact) {
+		put(byCity, StringDictionary.CITIES.folded(contact.getCity()), contact);
+		put(byState, StringDictionary.STATES.folded(contact.getState()), contact);
+	}
+
+	public void remove(Contact contact) {
+		remove(byCity, StringDictionary.CITIES.folded(contact.getCity()), contact);
+		remove(byState, StringDictionary.STATES.folded(contact.getState()), contact);
+	}
+
+	public List<Contact> getByCity(String city) {
+		return lookup(byCity, StringDictionary.CITIES.folded(city));
+	}
+
+	public List<Contact> getByState(String state) {
+		return lookup(byState, StringDictionary.STATES.folded(state));
+	}
+
+	public long countByCity(String city) {
+		return count(byCity, StringDictionary.CITIES.folded(city));
+	}
+
+	public long countByState(String state) {
+		return count(byState, StringDictionary.STATES.folded(state));
+	}
+
+	/**
+	 * Checks "firstName lastName" against the contact without building the
+	 * concatenated name
+	 */
+	public static boolean matchesFullName(Contact contact, String name, boolean ignoreCase) {
+		String first = contact.getFirstName();
+		String last = contact.getLastName();
+		int firstLength = first.length();
+		return name.length() == firstLength + 1 + last.length() && name.charAt(firstLength) == ' '
+				&& name.regionMatches(ignoreCase, 0, first, 0, firstLength)
+				&& name.regionMatches(ignoreCase, firstLength + 1, last, 0, last.length());
+	}
+
+	private static List<Contact> lookup(Map<String, List<Contact>> index, String key) {
+		List<Contact> matches = key == null ? null : index.get(key);
+		if (matches == null) {
+			return Collections.emptyList();
+		}
+		synchronized (matches) {
+			return new ArrayList<>(matches);
+		}
+	}
+
+	private static long count(Map<String, List<Contact>> index, String key) {
+		List<Contact> matches = key == null ? null : index.get(key);
+		if (matches == null) {
+			return 0;
+		}
+		synchronized (matches) {
+			return matches.size();
+		}
+	}
+
+	private static void put(Map<String, List<Contact>> index, String key, Contact contact) {
+		if (key == null) {
+			return;
+		}
+		index.compute(key, (k, matches) -> {
+			List<Contact> list = matches == null ? new ArrayList<>() : matches;
+			synchronized (list) {
+				list.add(contact);
+			}
+			return list;
+		});
+	}
+
+	private static void remove(Map<String, List<Contact>> index, String key, Contact contact) {
+		if (key == null) {
+			return;
+		}
+		index.computeIfPresent(key, (k, matches) -> {
+			synchronized (matches) {
+				for (int i = 0; i < matches.size(); i++) {
+					if (matches.get(i) == contact) {
+						matches.remove(i);
+						break;
+					}
+				}
+				return matches.isEmpty() ? null : matches;
+			}
+		});
+	}
+}
@@ -0,0 +1,57 @@
+package com.capgemini.addressbookdb;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes contact JSON files in UTF-8 through
+ * {@link ContactJsonWriter} and {@link ContactJsonReader}. Files are written
+ * to a temporary sibling and moved into place once complete, so a failed
+ * export leaves the previous file as it was.
+ */
+public final class ContactJsonCodec {
+	private ContactJsonCodec() {
+	}
+
+	public static void write(Path path, Iterable<Contact> contacts) throws IOException {
+		Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+		boolean written = false;
+		try {
+			try (ContactJsonWriter writer = new ContactJsonWriter(
+					Files.newBufferedWriter(temporary, StandardCharsets.UTF_8))) {
+				writer.writeAll(contacts);
+			}
+			Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			written = true;
+		} finally {
+			if (!written) {
+				Files.deleteIfExists(temporary);
+			}
+		}
+	}
+
+	/**
+	 * Opens a streaming reader, the caller closes it
+	 */
+	public static ContactJsonReader open(Path path) throws IOException {
+		return new ContactJsonReader(Files.newBufferedReader(path, StandardCharsets.UTF_8));
+	}
+
+	public static List<Contact> readAll(Path path) throws IOException {
+		try (ContactJsonReader reader = open(path)) {
+			List<Contact> contacts = new ArrayList<>();
+			while (reader.hasNext()) {
+				contacts.add(reader.next());
+			}
+			return contacts;
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package com.capgemini.addressbookdb;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Reads contacts one at a time from a JSON array written by
+ * {@link ContactJsonWriter}. Files from older releases, which hold the
+ * contact objects back to back with nothing between them, are read too.
+ * Malformed input surfaces as an {@link UncheckedIOException}.
+ */
+public class ContactJsonReader implements Iterator<Contact>, Closeable {
+	private final JsonReader in;
+	private final ContactTypeAdapter adapter = new ContactTypeAdapter();
+	private boolean started;
+	private boolean array;
+
+	public ContactJsonReader(Reader reader) {
+		this.in = new JsonReader(reader);
+		this.in.setLenient(true);
+	}
+
+	@Override
+	public boolean hasNext() {
+		try {
+			if (!started) {
+				started = true;
+				array = in.peek() == JsonToken.BEGIN_ARRAY;
+				if (array) {
+					in.beginArray();
+				}
+			}
+			return array ? in.hasNext() : in.peek() != JsonToken.END_DOCUMENT;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public Contact next() {
+		if (!this.hasNext()) {
+			throw new NoSuchElementException();
+		}
+		try {
+			return adapter.read(in);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} catch (JsonParseException | IllegalStateException | NumberFormatException e) {
+			throw new UncheckedIOException(new IOException("Invalid contact: " + e.getMessage(), e));
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+}
@@ -0,0 +1,72 @@
+package com.capgemini.addressbookdb;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Streams contacts into a single JSON array with {@link ContactTypeAdapter}.
+ * The array is opened by the constructor and closed by {@link #close()}, so
+ * the output is valid JSON however many contacts are written. Once a write
+ * has failed the array is left open, so a cut-off export does not parse as
+ * a complete one.
+ */
+public class ContactJsonWriter implements Closeable, Flushable {
+	private final Writer writer;
+	private final JsonWriter out;
+	private boolean failed;
+	private final ContactTypeAdapter adapter = new ContactTypeAdapter();
+
+	/**
+	 * @param out should be buffered
+	 */
+	public ContactJsonWriter(Writer out) throws IOException {
+		this.writer = out;
+		this.out = new JsonWriter(out);
+		this.out.beginArray();
+	}
+
+	public void write(Contact contact) throws IOException {
+		try {
+			adapter.write(out, contact);
+		} catch (IOException | RuntimeException e) {
+			failed = true;
+			throw e;
+		}
+	}
+
+	/**
+	 * Writes each contact with {@link #write(Contact)}. A failure of the
+	 * iteration itself also leaves the array open.
+	 */
+	public void writeAll(Iterable<Contact> contacts) throws IOException {
+		try {
+			for (Contact contact : contacts) {
+				write(contact);
+			}
+		} catch (RuntimeException e) {
+			failed = true;
+			throw e;
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (failed) {
+			writer.close();
+			return;
+		}
+		try {
+			out.endArray();
+		} finally {
+			out.close();
+		}
+	}
+}
@@ -0,0 +1,389 @@
+package com.capgemini.addressbookdb;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Append-only log of contact changes in a memory mapped file. Every add,
+ * update or delete appends one record, so persisting a change costs the same
+ * however many contacts there are. Opening the log replays it into the live
+ * contacts; a record cut short by a crash fails its checksum and the log is
+ * truncated there. Superseded records are dropped by {@link #compact()},
+ * which also runs on its own once they outweigh the live ones.
+ *
+ * <pre>
+ * "ABLG" version:byte 3 reserved bytes
+ * record  length:int crc32:int type:byte key:varlong [contact]
+ * </pre>
+ *
+ * The length is written after the rest of the record, so a record only
+ * becomes visible once it is complete. A zero length marks the end of the
+ * log. Contacts are tracked by identity: the instances returned by
+ * {@link #getContacts()} or passed to {@link #add(Contact)} are the ones to
+ * update and delete.
+ */
+public class ContactLog implements Closeable {
+	private static final Logger LOG = LogManager.getLogger(ContactLog.class);
+	public static final int VERSION = 1;
+	private static final byte[] MAGIC = { 'A', 'B', 'L', 'G' };
+	private static final int HEADER_BYTES = 8;
+	private static final int RECORD_HEADER_BYTES = 8;
+	private static final byte ADD = 1;
+	private static final byte UPDATE = 2;
+	private static final byte DELETE = 3;
+	private static final int INITIAL_CAPACITY = 1 << 20;
+
+	private final Path path;
+	private final RecordBuffer record = new RecordBuffer();
+	private final BinaryContactCodec.Output encoder = new BinaryContactCodec.Output(record);
+	private final CRC32 checksum = new CRC32();
+	private final Map<Long, Contact> contacts = new LinkedHashMap<>();
+	private final Map<Contact, Long> keys = new IdentityHashMap<>();
+	private final Map<Long, Integer> offsets = new HashMap<>();
+	private FileChannel channel;
+	private MappedByteBuffer buffer;
+	private int position;
+	private long deadBytes;
+	private long nextKey = 1;
+	private long autoCompactBytes = 1 << 20;
+	private boolean syncOnWrite;
+
+	private ContactLog(Path path) {
+		this.path = path;
+	}
+
+	/**
+	 * Opens the log, creating it if needed, and replays it
+	 */
+	public static ContactLog open(Path path) throws IOException {
+		ContactLog log = new ContactLog(path);
+		try {
+			log.map();
+			log.replay();
+		} catch (IOException | RuntimeException e) {
+			log.close();
+			throw e;
+		}
+		return log;
+	}
+
+	public synchronized List<Contact> getContacts() {
+		return new ArrayList<>(contacts.values());
+	}
+
+	public synchronized int size() {
+		return contacts.size();
+	}
+
+	/**
+	 * @return bytes in use, header included
+	 */
+	public synchronized long getLength() {
+		return position;
+	}
+
+	/**
+	 * @return bytes taken by records a later record made obsolete
+	 */
+	public synchronized long getDeadBytes() {
+		return deadBytes;
+	}
+
+	/**
+	 * Compaction starts once the dead records are larger than both this and
+	 * the live ones, 0 turns it off. Defaults to 1 MB.
+	 */
+	public synchronized void setAutoCompactBytes(long autoCompactBytes) {
+		this.autoCompactBytes = autoCompactBytes;
+	}
+
+	/**
+	 * Forces every record to disk as it is written instead of leaving that to
+	 * the operating system, {@link #sync()} and {@link #close()}
+	 */
+	public synchronized void setSyncOnWrite(boolean syncOnWrite) {
+		this.syncOnWrite = syncOnWrite;
+	}
+
+	public synchronized void add(Contact contact) throws IOException {
+		Long key = keys.get(contact);
+		if (key != null) {
+			this.update(contact);
+			return;
+		}
+		key = nextKey++;
+		this.append(ADD, key, contact);
+		contacts.put(key, contact);
+		keys.put(contact, key);
+		this.compactIfMostlyDead();
+	}
+
+	/**
+	 * Records the current fields of the contact, adding it when the log does
+	 * not know it yet
+	 */
+	public synchronized void update(Contact contact) throws IOException {
+		Long key = keys.get(contact);
+		if (key == null) {
+			this.add(contact);
+			return;
+		}
+		this.append(UPDATE, key, contact);
+		this.compactIfMostlyDead();
+	}
+
+	/**
+	 * @return false when the log does not know the contact
+	 */
+	public synchronized boolean delete(Contact contact) throws IOException {
+		Long key = keys.get(contact);
+		if (key == null) {
+			return false;
+		}
+		this.append(DELETE, key, null);
+		contacts.remove(key);
+		keys.remove(contact);
+		this.compactIfMostlyDead();
+		return true;
+	}
+
+	/**
+	 * Rewrites the log with one record per live contact and swaps it in
+	 * atomically
+	 */
+	public synchronized void compact() throws IOException {
+		Metrics.run("io.compactLog", () -> {
+			Path temporary = path.resolveSibling(path.getFileName() + ".compact");
+			Map<Long, Integer> compactedOffsets = new HashMap<>();
+			int length = HEADER_BYTES;
+			try (FileChannel target = FileChannel.open(temporary, StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+					OutputStream out = new BufferedOutputStream(Channels.newOutputStream(target), 1 << 16)) {
+				out.write(header());
+				for (Map.Entry<Long, Contact> entry : contacts.entrySet()) {
+					this.encode(ADD, entry.getKey(), entry.getValue());
+					compactedOffsets.put(entry.getKey(), length);
+					out.write(intBytes(record.size()));
+					out.write(intBytes((int) checksum.getValue()));
+					out.write(record.array(), 0, record.size());
+					length += RECORD_HEADER_BYTES + record.size();
+				}
+				out.flush();
+				target.force(true);
+			}
+			buffer.force();
+			channel.close();
+			try {
+				Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				this.map();
+			}
+			LOG.info("Compacted {} from {} to {} bytes", path, position, length);
+			position = length;
+			deadBytes = 0;
+			offsets.clear();
+			offsets.putAll(compactedOffsets);
+		});
+	}
+
+	public synchronized void sync() {
+		if (buffer != null) {
+			buffer.force();
+		}
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if (channel != null && channel.isOpen()) {
+			this.sync();
+			channel.close();
+		}
+		buffer = null;
+	}
+
+	private void append(byte type, long key, Contact contact) throws IOException {
+		this.encode(type, key, contact);
+		int size = RECORD_HEADER_BYTES + record.size();
+		this.ensureCapacity(size);
+		int offset = position;
+		buffer.putInt(offset + 4, (int) checksum.getValue());
+		ByteBuffer body = buffer.duplicate();
+		body.position(offset + RECORD_HEADER_BYTES);
+		body.put(record.array(), 0, record.size());
+		buffer.putInt(offset, record.size());
+		position += size;
+		this.account(type, key, offset);
+		if (syncOnWrite) {
+			buffer.force();
+		}
+	}
+
+	private void compactIfMostlyDead() throws IOException {
+		if (autoCompactBytes > 0 && deadBytes > autoCompactBytes && deadBytes > position - deadBytes) {
+			this.compact();
+		}
+	}
+
+	private void encode(byte type, long key, Contact contact) throws IOException {
+		record.reset();
+		encoder.writeByte(type);
+		encoder.writeVarLong(key);
+		if (contact != null) {
+			encoder.writeContact(contact);
+		}
+		encoder.flush();
+		checksum.reset();
+		checksum.update(record.array(), 0, record.size());
+	}
+
+	/**
+	 * Keeps the offset of the latest record of every key, counting the
+	 * records it replaces and deletions as dead
+	 */
+	private void account(byte type, long key, int offset) {
+		Integer previous = type == DELETE ? offsets.remove(key) : offsets.put(key, offset);
+		if (previous != null) {
+			deadBytes += RECORD_HEADER_BYTES + buffer.getInt(previous);
+		}
+		if (type == DELETE) {
+			deadBytes += RECORD_HEADER_BYTES + buffer.getInt(offset);
+		}
+	}
+
+	private void ensureCapacity(int size) throws IOException {
+		long required = (long) position + size + 4;
+		if (required <= buffer.capacity()) {
+			return;
+		}
+		if (required > Integer.MAX_VALUE) {
+			throw new IOException("Contact log " + path + " is full, compact it");
+		}
+		buffer.force();
+		long capacity = Math.min(Math.max(required, (long) buffer.capacity() * 2), Integer.MAX_VALUE);
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+	}
+
+	private void map() throws IOException {
+		channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		long size = channel.size();
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("Contact log " + path + " is larger than 2 GB");
+		}
+		boolean empty = size == 0;
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, INITIAL_CAPACITY));
+		if (empty) {
+			buffer.duplicate().put(header());
+		}
+		for (int i = 0; i < MAGIC.length; i++) {
+			if (buffer.get(i) != MAGIC[i]) {
+				throw new IOException("Not a contact log: " + path);
+			}
+		}
+		if (buffer.get(MAGIC.length) != VERSION) {
+			throw new IOException("Unsupported contact log version " + buffer.get(MAGIC.length));
+		}
+	}
+
+	/**
+	 * Applies every complete record and cuts the log at the first one that is
+	 * torn or fails its checksum
+	 */
+	private void replay() throws IOException {
+		ByteBuffer view = buffer.duplicate();
+		BinaryContactCodec.Input in = new BinaryContactCodec.Input(view);
+		int offset = HEADER_BYTES;
+		int limit = buffer.capacity();
+		while (offset + RECORD_HEADER_BYTES <= limit) {
+			int length = buffer.getInt(offset);
+			if (length == 0) {
+				break;
+			}
+			int end = offset + RECORD_HEADER_BYTES + length;
+			if (length < 0 || end < 0 || end > limit || !this.isIntact(offset, length)) {
+				LOG.warn("Contact log {} has a damaged record at {}, dropping {} bytes", path, offset, limit - offset);
+				this.truncate(offset, limit);
+				break;
+			}
+			view.limit(end).position(offset + RECORD_HEADER_BYTES);
+			byte type = (byte) in.readByte();
+			long key = in.readVarLong();
+			if (type == DELETE) {
+				Contact deleted = contacts.remove(key);
+				if (deleted != null) {
+					keys.remove(deleted);
+				}
+			} else {
+				Contact contact = in.readContact();
+				Contact previous = contacts.put(key, contact);
+				if (previous != null) {
+					keys.remove(previous);
+				}
+				keys.put(contact, key);
+			}
+			this.account(type, key, offset);
+			nextKey = Math.max(nextKey, key + 1);
+			offset = end;
+		}
+		position = offset;
+	}
+
+	private boolean isIntact(int offset, int length) {
+		ByteBuffer body = buffer.duplicate();
+		body.limit(offset + RECORD_HEADER_BYTES + length).position(offset + RECORD_HEADER_BYTES);
+		checksum.reset();
+		checksum.update(body);
+		return (int) checksum.getValue() == buffer.getInt(offset + 4);
+	}
+
+	/**
+	 * Zeroes everything after the last good record, so nothing left behind by
+	 * the torn write can be read as a record later
+	 */
+	private void truncate(int from, int to) {
+		byte[] zeros = new byte[64 * 1024];
+		ByteBuffer tail = buffer.duplicate();
+		tail.position(from);
+		while (tail.position() < to) {
+			tail.put(zeros, 0, Math.min(zeros.length, to - tail.position()));
+		}
+		buffer.force();
+	}
+
+	private static byte[] header() {
+		return new byte[] { MAGIC[0], MAGIC[1], MAGIC[2], MAGIC[3], VERSION, 0, 0, 0 };
+	}
+
+	private static byte[] intBytes(int value) {
+		return new byte[] { (byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value };
+	}
+
+	/**
+	 * Byte array stream that exposes its buffer, so a record is copied into
+	 * the log without an intermediate array
+	 */
+	private static class RecordBuffer extends ByteArrayOutputStream {
+		byte[] array() {
+			return buf;
+		}
+	}
+}
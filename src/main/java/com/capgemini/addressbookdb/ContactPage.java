@@ -0,0 +1,86 @@
+package com.capgemini.addressbookdb;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a keyset paginated contact query. The continuation token is
+ * opaque to callers: it encodes the sort key of the last contact on the page
+ * and the kind of query it belongs to, so the next page is fetched with an
+ * index seek instead of an OFFSET scan.
+ */
+public class ContactPage {
+	private final List<Contact> contacts;
+	private final String nextToken;
+
+	public ContactPage(List<Contact> contacts, String nextToken) {
+		this.contacts = Collections.unmodifiableList(contacts);
+		this.nextToken = nextToken;
+	}
+
+	public List<Contact> getContacts() {
+		return contacts;
+	}
+
+	/**
+	 * @return token for the following page, null on the last page
+	 */
+	public String getNextToken() {
+		return nextToken;
+	}
+
+	public boolean hasNext() {
+		return nextToken != null;
+	}
+
+	static String encodeToken(String query, String... keys) {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeUTF(query);
+			out.writeByte(keys.length);
+			for (String key : keys) {
+				out.writeUTF(key);
+			}
+			out.flush();
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Reads the keys back out of a token made by {@link #encodeToken}. The key
+	 * count and string lengths are checked against the bytes present, so a
+	 * tampered or truncated token fails with IllegalArgumentException.
+	 *
+	 * @param keyCount number of keys the query's tokens carry
+	 */
+	static String[] decodeToken(String query, int keyCount, String token) {
+		try {
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)));
+			if (!query.equals(in.readUTF())) {
+				throw new IllegalArgumentException("Continuation token belongs to a different query");
+			}
+			if (in.readByte() != keyCount) {
+				throw new IllegalArgumentException("Continuation token has the wrong number of keys");
+			}
+			String[] keys = new String[keyCount];
+			for (int i = 0; i < keys.length; i++) {
+				keys[i] = in.readUTF();
+			}
+			if (in.available() != 0) {
+				throw new IllegalArgumentException("Continuation token has trailing bytes");
+			}
+			return keys;
+		} catch (IOException | IllegalArgumentException e) {
+			throw new IllegalArgumentException("Invalid continuation token", e);
+		}
+	}
+}
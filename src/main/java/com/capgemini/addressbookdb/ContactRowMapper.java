@@ -0,0 +1,58 @@
+package com.capgemini.addressbookdb;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps contact rows to {@link Contact}s. Column positions are resolved once
+ * per result set instead of by label on every row; add_id is optional since
+ * only the join queries select it.
+ */
+class ContactRowMapper {
+	private final int contactId;
+	private final int firstName;
+	private final int lastName;
+	private final int address;
+	private final int zip;
+	private final int city;
+	private final int state;
+	private final int phone;
+	private final int email;
+	private final int date;
+	private final int addId;
+
+	ContactRowMapper(ResultSet resultSet) throws SQLException {
+		contactId = resultSet.findColumn("contact_id");
+		firstName = resultSet.findColumn("fname");
+		lastName = resultSet.findColumn("lname");
+		address = resultSet.findColumn("address");
+		zip = resultSet.findColumn("zip");
+		city = resultSet.findColumn("city");
+		state = resultSet.findColumn("state");
+		phone = resultSet.findColumn("phone");
+		email = resultSet.findColumn("email");
+		date = resultSet.findColumn("date");
+		addId = optionalColumn(resultSet, "add_id");
+	}
+
+	Contact map(ResultSet resultSet) throws SQLException {
+		Date sqlDate = resultSet.getDate(date);
+		Contact contact = new Contact(resultSet.getInt(contactId), resultSet.getString(firstName),
+				resultSet.getString(lastName), resultSet.getString(address), resultSet.getString(city),
+				resultSet.getString(state), resultSet.getLong(zip), resultSet.getLong(phone),
+				resultSet.getString(email), sqlDate == null ? null : sqlDate.toLocalDate());
+		if (addId > 0) {
+			contact.addId = resultSet.getInt(addId);
+		}
+		return contact;
+	}
+
+	private static int optionalColumn(ResultSet resultSet, String label) {
+		try {
+			return resultSet.findColumn(label);
+		} catch (SQLException e) {
+			return -1;
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package com.capgemini.addressbookdb;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.function.ToLongFunction;
+
+/**
+ * Sorts address books in place. Names compare the cached
+ * {@link Contact#getNameKey()}, so repeated sorts of a book build no
+ * strings, and zips and phone numbers are radix sorted over a long[] of the
+ * keys instead of compared pairwise. Lists of at least
+ * {@link #PARALLEL_THRESHOLD} contacts are sorted with
+ * {@link Arrays#parallelSort}. Every sort is stable and gives the order of
+ * {@link SortByName} or {@link SortByZip}.
+ */
+public final class ContactSorter {
+	public static final int PARALLEL_THRESHOLD = 1 << 13;
+	private static final Comparator<Contact> BY_NAME_KEY = (a, b) -> a.getNameKey().compareTo(b.getNameKey());
+
+	private ContactSorter() {
+	}
+
+	public static void sortByName(List<Contact> contacts) {
+		if (contacts.size() < PARALLEL_THRESHOLD) {
+			contacts.sort(BY_NAME_KEY);
+			return;
+		}
+		Contact[] sorted = contacts.toArray(new Contact[0]);
+		Arrays.parallelSort(sorted, BY_NAME_KEY);
+		replace(contacts, sorted);
+	}
+
+	public static void sortByZip(List<Contact> contacts) {
+		sortByKey(contacts, Contact::getZip);
+	}
+
+	public static void sortByPhoneNumber(List<Contact> contacts) {
+		sortByKey(contacts, Contact::getPhoneNumber);
+	}
+
+	private static void sortByKey(List<Contact> contacts, ToLongFunction<Contact> key) {
+		Contact[] unsorted = contacts.toArray(new Contact[0]);
+		long[] keys = new long[unsorted.length];
+		for (int i = 0; i < unsorted.length; i++) {
+			keys[i] = key.applyAsLong(unsorted[i]);
+		}
+		int[] order = radixSort(keys, keys.length);
+		ListIterator<Contact> iterator = contacts.listIterator();
+		for (int row : order) {
+			iterator.next();
+			iterator.set(unsorted[row]);
+		}
+	}
+
+	/**
+	 * Stable LSD radix sort of row numbers by a long key, one byte per pass.
+	 * Byte positions where every key agrees are skipped, so six digit zips
+	 * take three passes and ten digit phone numbers five.
+	 *
+	 * @return row numbers ordered by the keys, ties in row order
+	 */
+	static int[] radixSort(long[] keys, int size) {
+		int[] rows = new int[size];
+		for (int i = 0; i < size; i++) {
+			rows[i] = i;
+		}
+		long or = 0;
+		long and = -1;
+		for (int i = 0; i < size; i++) {
+			long key = keys[i] ^ Long.MIN_VALUE;
+			or |= key;
+			and &= key;
+		}
+		int[] scratch = new int[size];
+		int[] counts = new int[257];
+		for (int shift = 0; shift < 64; shift += 8) {
+			if ((((or ^ and) >>> shift) & 0xFF) == 0) {
+				continue;
+			}
+			Arrays.fill(counts, 0);
+			for (int i = 0; i < size; i++) {
+				counts[(int) (((keys[rows[i]] ^ Long.MIN_VALUE) >>> shift) & 0xFF) + 1]++;
+			}
+			for (int b = 0; b < 256; b++) {
+				counts[b + 1] += counts[b];
+			}
+			for (int i = 0; i < size; i++) {
+				int row = rows[i];
+				scratch[counts[(int) (((keys[row] ^ Long.MIN_VALUE) >>> shift) & 0xFF)]++] = row;
+			}
+			int[] swap = rows;
+			rows = scratch;
+			scratch = swap;
+		}
+		return rows;
+	}
+
+	private static void replace(List<Contact> contacts, Contact[] sorted) {
+		ListIterator<Contact> iterator = contacts.listIterator();
+		for (Contact contact : sorted) {
+			iterator.next();
+			iterator.set(contact);
+		}
+	}
+}
@@ -0,0 +1,282 @@
+package com.capgemini.addressbookdb;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory contact list with hash indexes by id, first name, full name,
+ * city and state. Lookups cost one hash probe and grouping queries copy only
+ * the matching contacts. Readers share a read lock, mutations take the write
+ * lock so the indexes never disagree with the list.
+ */
+public class ContactStore {
+	private final List<Contact> contacts = new ArrayList<>();
+	private final Map<Integer, List<Contact>> byId = new HashMap<>();
+	private final Map<String, List<Contact>> byFirstName = new HashMap<>();
+	private final Map<String, List<Contact>> byFullName = new HashMap<>();
+	private final Map<String, List<Contact>> byCity = new HashMap<>();
+	private final Map<String, List<Contact>> byState = new HashMap<>();
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	public ContactStore() {
+	}
+
+	public ContactStore(Collection<Contact> contacts) {
+		this.addAll(contacts);
+	}
+
+	public void add(Contact contact) {
+		lock.writeLock().lock();
+		try {
+			contacts.add(contact);
+			index(contact);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void addAll(Collection<Contact> newContacts) {
+		lock.writeLock().lock();
+		try {
+			contacts.addAll(newContacts);
+			newContacts.forEach(this::index);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Drops every contact and loads the given ones, e.g. after a full read
+	 * from the database
+	 */
+	public void replaceAll(Collection<Contact> newContacts) {
+		lock.writeLock().lock();
+		try {
+			contacts.clear();
+			byId.clear();
+			byFirstName.clear();
+			byFullName.clear();
+			byCity.clear();
+			byState.clear();
+			contacts.addAll(newContacts);
+			newContacts.forEach(this::index);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public boolean remove(Contact contact) {
+		lock.writeLock().lock();
+		try {
+			for (int i = 0; i < contacts.size(); i++) {
+				if (contacts.get(i) == contact) {
+					contacts.remove(i);
+					unindex(contact);
+					return true;
+				}
+			}
+			return false;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Merges a contact read from the database: a stored contact with the same
+	 * id and address book is overwritten in place, anything else is added
+	 * 
+	 * @return true when the contact was new to the store
+	 */
+	public boolean upsert(Contact contact) {
+		lock.writeLock().lock();
+		try {
+			List<Contact> sameId = contact.id == 0 ? null : byId.get(contact.id);
+			if (sameId != null) {
+				for (Contact stored : sameId) {
+					if (stored.addId == contact.addId) {
+						unindex(stored);
+						copy(contact, stored);
+						index(stored);
+						return false;
+					}
+				}
+			}
+			contacts.add(contact);
+			index(contact);
+			return true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Applies a change to a stored contact and re-indexes it, so changes to
+	 * names, city or state are reflected in the lookups
+	 */
+	public void update(Contact contact, Consumer<Contact> change) {
+		lock.writeLock().lock();
+		try {
+			unindex(contact);
+			change.accept(contact);
+			index(contact);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * @return the first contact stored with this id, or null
+	 */
+	public Contact getById(int id) {
+		lock.readLock().lock();
+		try {
+			List<Contact> matches = byId.get(id);
+			return matches == null ? null : matches.get(0);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return the first contact added with this first name, or null
+	 */
+	public Contact getFirstByFirstName(String firstName) {
+		lock.readLock().lock();
+		try {
+			List<Contact> matches = byFirstName.get(firstName);
+			return matches == null ? null : matches.get(0);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public List<Contact> getByFirstName(String firstName) {
+		return lookup(byFirstName, firstName);
+	}
+
+	public List<Contact> getByFullName(String fullName) {
+		return lookup(byFullName, fullName);
+	}
+
+	public List<Contact> getByCity(String city) {
+		return lookup(byCity, city);
+	}
+
+	public List<Contact> getByState(String state) {
+		return lookup(byState, state);
+	}
+
+	public int countByCity(String city) {
+		return count(byCity, city);
+	}
+
+	public int countByState(String state) {
+		return count(byState, state);
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return contacts.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return a snapshot of all contacts in insertion order
+	 */
+	public List<Contact> toList() {
+		lock.readLock().lock();
+		try {
+			return new ArrayList<>(contacts);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private List<Contact> lookup(Map<String, List<Contact>> index, String key) {
+		lock.readLock().lock();
+		try {
+			List<Contact> matches = index.get(key);
+			return matches == null ? Collections.emptyList() : new ArrayList<>(matches);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private int count(Map<String, List<Contact>> index, String key) {
+		lock.readLock().lock();
+		try {
+			List<Contact> matches = index.get(key);
+			return matches == null ? 0 : matches.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void index(Contact contact) {
+		if (contact.id != 0) {
+			byId.computeIfAbsent(contact.id, k -> new ArrayList<>(1)).add(contact);
+		}
+		put(byFirstName, contact.firstName, contact);
+		put(byFullName, fullName(contact), contact);
+		put(byCity, contact.city, contact);
+		put(byState, contact.state, contact);
+	}
+
+	private void unindex(Contact contact) {
+		if (contact.id != 0) {
+			remove(byId, contact.id, contact);
+		}
+		remove(byFirstName, contact.firstName, contact);
+		remove(byFullName, fullName(contact), contact);
+		remove(byCity, contact.city, contact);
+		remove(byState, contact.state, contact);
+	}
+
+	private static void copy(Contact from, Contact to) {
+		to.firstName = from.firstName;
+		to.lastName = from.lastName;
+		to.address = from.address;
+		to.city = from.city;
+		to.state = from.state;
+		to.zip = from.zip;
+		to.phoneNumber = from.phoneNumber;
+		to.email = from.email;
+		to.date = from.date;
+	}
+
+	private static String fullName(Contact contact) {
+		return contact.firstName + " " + contact.lastName;
+	}
+
+	private static void put(Map<String, List<Contact>> index, String key, Contact contact) {
+		if (key != null) {
+			index.computeIfAbsent(key, k -> new ArrayList<>(1)).add(contact);
+		}
+	}
+
+	private static <K> void remove(Map<K, List<Contact>> index, K key, Contact contact) {
+		List<Contact> matches = key == null ? null : index.get(key);
+		if (matches == null) {
+			return;
+		}
+		for (int i = 0; i < matches.size(); i++) {
+			if (matches.get(i) == contact) {
+				matches.remove(i);
+				break;
+			}
+		}
+		if (matches.isEmpty()) {
+			index.remove(key);
+		}
+	}
+}
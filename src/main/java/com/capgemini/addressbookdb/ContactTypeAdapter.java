@@ -0,0 +1,141 @@
+package com.capgemini.addressbookdb;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Hand written Gson mapping of {@link Contact}, so no reflection is involved.
+ * The property names are the ones reflective Gson uses for the fields. The
+ * date is written as an ISO string ("2021-01-01"). It is read either as that
+ * string or as the {"year", "month", "day"} object that reflective Gson
+ * produced for LocalDate, which is what json-server holds today. Null
+ * properties are left out and unknown ones are skipped.
+ */
+public class ContactTypeAdapter extends TypeAdapter<Contact> {
+	@Override
+	public void write(JsonWriter out, Contact contact) throws IOException {
+		if (contact == null) {
+			out.nullValue();
+			return;
+		}
+		out.beginObject();
+		writeString(out, "firstName", contact.firstName);
+		writeString(out, "lastName", contact.lastName);
+		writeString(out, "address", contact.address);
+		writeString(out, "city", contact.city);
+		writeString(out, "state", contact.state);
+		out.name("zip").value(contact.zip);
+		out.name("phoneNumber").value(contact.phoneNumber);
+		writeString(out, "email", contact.email);
+		out.name("addId").value(contact.addId);
+		if (contact.date != null) {
+			out.name("date").value(contact.date.toString());
+		}
+		out.name("id").value(contact.id);
+		out.endObject();
+	}
+
+	@Override
+	public Contact read(JsonReader in) throws IOException {
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return null;
+		}
+		Contact contact = new Contact(null, null, null, null, null, 0, 0, null);
+		in.beginObject();
+		while (in.hasNext()) {
+			String name = in.nextName();
+			if (in.peek() == JsonToken.NULL) {
+				in.nextNull();
+				continue;
+			}
+			switch (name) {
+			case "firstName":
+				contact.firstName = in.nextString();
+				break;
+			case "lastName":
+				contact.lastName = in.nextString();
+				break;
+			case "address":
+				contact.address = in.nextString();
+				break;
+			case "city":
+				contact.city = StringDictionary.CITIES.canonical(in.nextString());
+				break;
+			case "state":
+				contact.state = StringDictionary.STATES.canonical(in.nextString());
+				break;
+			case "zip":
+				contact.zip = in.nextLong();
+				break;
+			case "phoneNumber":
+				contact.phoneNumber = in.nextLong();
+				break;
+			case "email":
+				contact.email = in.nextString();
+				break;
+			case "addId":
+				contact.addId = in.nextInt();
+				break;
+			case "date":
+				contact.date = readDate(in);
+				break;
+			case "id":
+				contact.id = in.nextInt();
+				break;
+			default:
+				in.skipValue();
+			}
+		}
+		in.endObject();
+		return contact;
+	}
+
+	private static void writeString(JsonWriter out, String name, String value) throws IOException {
+		if (value != null) {
+			out.name(name).value(value);
+		}
+	}
+
+	private static LocalDate readDate(JsonReader in) throws IOException {
+		if (in.peek() == JsonToken.STRING) {
+			String date = in.nextString();
+			try {
+				return LocalDate.parse(date);
+			} catch (DateTimeParseException e) {
+				throw new JsonSyntaxException("Invalid date " + date);
+			}
+		}
+		int year = 0;
+		int month = 0;
+		int day = 0;
+		in.beginObject();
+		while (in.hasNext()) {
+			switch (in.nextName()) {
+			case "year":
+				year = in.nextInt();
+				break;
+			case "month":
+				month = in.nextInt();
+				break;
+			case "day":
+				day = in.nextInt();
+				break;
+			default:
+				in.skipValue();
+			}
+		}
+		in.endObject();
+		try {
+			return LocalDate.of(year, month, day);
+		} catch (RuntimeException e) {
+			throw new JsonSyntaxException("Invalid date " + year + "-" + month + "-" + day);
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package com.capgemini.addressbookdb;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs database writes on a fixed number of worker threads. The number of
+ * tasks waiting or running is capped, so a producer submitting faster than
+ * the database can absorb blocks in {@link #submit(Callable)} instead of
+ * piling up work in memory.
+ */
+public class ContactWriteExecutor {
+	private static final AtomicInteger EXECUTOR_COUNT = new AtomicInteger();
+
+	private final AddressBookDB addressBookDB;
+	private final ThreadPoolExecutor executor;
+	private final Semaphore capacity;
+	private final int chunkSize;
+
+	/**
+	 * @param addressBookDB
+	 * @param parallelism   worker threads, keep it at or below the connection
+	 *                      pool size so workers never queue for connections
+	 * @param queueCapacity tasks allowed to wait behind the running ones
+	 * @param chunkSize     contacts written per task and per transaction
+	 */
+	public ContactWriteExecutor(AddressBookDB addressBookDB, int parallelism, int queueCapacity, int chunkSize) {
+		this.addressBookDB = addressBookDB;
+		this.chunkSize = chunkSize;
+		this.capacity = new Semaphore(parallelism + queueCapacity);
+		int executorId = EXECUTOR_COUNT.incrementAndGet();
+		AtomicInteger threadCount = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(parallelism, parallelism, 30, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), runnable -> {
+					Thread thread = new Thread(runnable,
+							"contact-writer-" + executorId + "-" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Sizes the executor from the connection pool behind the given database
+	 */
+	public ContactWriteExecutor(AddressBookDB addressBookDB, int chunkSize) {
+		this(addressBookDB, addressBookDB.getConnectionPool().getConfig().getMaxPoolSize(),
+				addressBookDB.getConnectionPool().getConfig().getMaxPoolSize() * 2, chunkSize);
+	}
+
+	/**
+	 * Queues a task, blocking while the executor is at capacity. After
+	 * {@link #shutdown()} the future completes with a
+	 * RejectedExecutionException.
+	 */
+	public <T> CompletableFuture<T> submit(Callable<T> task) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		try {
+			capacity.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			future.completeExceptionally(e);
+			return future;
+		}
+		try {
+			executor.execute(() -> {
+				try {
+					future.complete(task.call());
+				} catch (Throwable e) {
+					future.completeExceptionally(e);
+				} finally {
+					capacity.release();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			capacity.release();
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+	/**
+	 * Writes the contacts in chunks spread over the worker threads.
+	 *
+	 * @return one future per contact, in input order, completed with the stored
+	 *         contact or exceptionally with the reason the row was rejected
+	 */
+	public List<CompletableFuture<Contact>> addContacts(List<Contact> contacts) {
+		List<CompletableFuture<Contact>> futures = new ArrayList<>(contacts.size());
+		for (int i = 0; i < contacts.size(); i++) {
+			futures.add(new CompletableFuture<>());
+		}
+		for (int from = 0; from < contacts.size(); from += chunkSize) {
+			int to = Math.min(from + chunkSize, contacts.size());
+			List<Contact> chunk = contacts.subList(from, to);
+			List<CompletableFuture<Contact>> chunkFutures = futures.subList(from, to);
+			this.submit(() -> addressBookDB.addContacts(chunk, chunk.size())).whenComplete((result, error) -> {
+				if (error != null) {
+					chunkFutures.forEach(future -> future.completeExceptionally(error));
+				} else {
+					complete(chunk, chunkFutures, result);
+				}
+			});
+		}
+		return futures;
+	}
+
+	private static void complete(List<Contact> chunk, List<CompletableFuture<Contact>> futures,
+			BulkLoadResult result) {
+		Map<Contact, String> failures = new IdentityHashMap<>();
+		result.getFailures().forEach(failure -> failures.put(failure.getContact(), failure.getReason()));
+		Iterator<Contact> added = result.getAddedContacts().iterator();
+		for (int i = 0; i < chunk.size(); i++) {
+			String reason = failures.get(chunk.get(i));
+			if (reason != null) {
+				futures.get(i).completeExceptionally(new DatabaseException(reason));
+			} else {
+				futures.get(i).complete(added.next());
+			}
+		}
+	}
+
+	public int getParallelism() {
+		return executor.getMaximumPoolSize();
+	}
+
+	public void shutdown() {
+		executor.shutdown();
+	}
+}
@@ -0,0 +1,161 @@
+package com.capgemini.addressbookdb;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free metrics kept in memory, one set per operation name: call and
+ * error counters, the number of calls in flight, and a latency histogram
+ * with power-of-two microsecond buckets. Percentiles read from the histogram
+ * are the upper bound of the bucket they fall in, so they are accurate to a
+ * factor of two at most.
+ */
+public class InMemoryMetricsRegistry implements MetricsRegistry {
+	private static final int BUCKETS = 40;
+
+	private final Map<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+
+	@Override
+	public void operationStarted(String operation) {
+		metrics(operation).inFlight.incrementAndGet();
+	}
+
+	@Override
+	public void operationCompleted(String operation, long elapsedNanos, boolean failed) {
+		OperationMetrics metrics = metrics(operation);
+		metrics.inFlight.decrementAndGet();
+		metrics.count.increment();
+		if (failed) {
+			metrics.errors.increment();
+		}
+		metrics.totalNanos.add(elapsedNanos);
+		metrics.maxNanos.accumulate(elapsedNanos);
+		metrics.histogram.incrementAndGet(bucket(elapsedNanos));
+	}
+
+	/**
+	 * @return the current values of every operation seen so far, by name
+	 */
+	public Map<String, Snapshot> snapshot() {
+		Map<String, Snapshot> snapshot = new TreeMap<>();
+		operations.forEach((name, metrics) -> snapshot.put(name, metrics.snapshot()));
+		return snapshot;
+	}
+
+	/**
+	 * @return the current values of one operation, or null if it never ran
+	 */
+	public Snapshot getSnapshot(String operation) {
+		OperationMetrics metrics = operations.get(operation);
+		return metrics == null ? null : metrics.snapshot();
+	}
+
+	public void reset() {
+		operations.clear();
+	}
+
+	private OperationMetrics metrics(String operation) {
+		OperationMetrics metrics = operations.get(operation);
+		return metrics != null ? metrics : operations.computeIfAbsent(operation, name -> new OperationMetrics());
+	}
+
+	private static int bucket(long elapsedNanos) {
+		long micros = TimeUnit.NANOSECONDS.toMicros(elapsedNanos);
+		return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+	}
+
+	private static class OperationMetrics {
+		private final LongAdder count = new LongAdder();
+		private final LongAdder errors = new LongAdder();
+		private final AtomicInteger inFlight = new AtomicInteger();
+		private final LongAdder totalNanos = new LongAdder();
+		private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+		private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+		private Snapshot snapshot() {
+			long[] buckets = new long[BUCKETS];
+			for (int i = 0; i < BUCKETS; i++) {
+				buckets[i] = histogram.get(i);
+			}
+			return new Snapshot(count.sum(), errors.sum(), inFlight.get(), totalNanos.sum(), maxNanos.get(), buckets);
+		}
+	}
+
+	/**
+	 * Point in time values of one operation
+	 */
+	public static class Snapshot {
+		private final long count;
+		private final long errors;
+		private final int inFlight;
+		private final long totalNanos;
+		private final long maxNanos;
+		private final long[] buckets;
+
+		Snapshot(long count, long errors, int inFlight, long totalNanos, long maxNanos, long[] buckets) {
+			this.count = count;
+			this.errors = errors;
+			this.inFlight = inFlight;
+			this.totalNanos = totalNanos;
+			this.maxNanos = maxNanos;
+			this.buckets = buckets;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public long getErrors() {
+			return errors;
+		}
+
+		public int getInFlight() {
+			return inFlight;
+		}
+
+		public double getMeanMillis() {
+			return count == 0 ? 0 : totalNanos / (double) count / 1_000_000;
+		}
+
+		public double getMaxMillis() {
+			return maxNanos / 1_000_000.0;
+		}
+
+		/**
+		 * @param percentile between 0 and 100
+		 * @return upper bound in milliseconds of the histogram bucket holding
+		 *         the given percentile of the recorded latencies
+		 */
+		public double getPercentileMillis(double percentile) {
+			long total = 0;
+			for (long bucket : buckets) {
+				total += bucket;
+			}
+			if (total == 0) {
+				return 0;
+			}
+			long rank = (long) Math.ceil(total * percentile / 100);
+			long seen = 0;
+			for (int i = 0; i < buckets.length; i++) {
+				seen += buckets[i];
+				if (seen >= Math.max(rank, 1)) {
+					return (1L << i) / 1000.0;
+				}
+			}
+			return getMaxMillis();
+		}
+
+		@Override
+		public String toString() {
+			return String.format("count=%d errors=%d inFlight=%d mean=%.3fms p50<=%.3fms p95<=%.3fms "
+					+ "p99<=%.3fms max=%.3fms", count, errors, inFlight, getMeanMillis(), getPercentileMillis(50),
+					getPercentileMillis(95), getPercentileMillis(99), getMaxMillis());
+		}
+	}
+}
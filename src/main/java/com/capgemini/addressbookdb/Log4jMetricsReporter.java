@@ -0,0 +1,66 @@
+package com.capgemini.addressbookdb;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Periodically logs the values of an {@link InMemoryMetricsRegistry}, one
+ * line per operation, on the com.capgemini.addressbookdb.Metrics logger at
+ * INFO. Operations that did not run since the previous report are skipped.
+ */
+public class Log4jMetricsReporter {
+	private static final Logger LOG = LogManager.getLogger("com.capgemini.addressbookdb.Metrics");
+
+	private final InMemoryMetricsRegistry registry;
+	private final Map<String, Long> reportedCounts = new HashMap<>();
+	private ScheduledExecutorService scheduler;
+
+	public Log4jMetricsReporter(InMemoryMetricsRegistry registry) {
+		this.registry = registry;
+	}
+
+	public synchronized void start(long period, TimeUnit unit) {
+		if (scheduler != null) {
+			return;
+		}
+		scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "metrics-reporter");
+			thread.setDaemon(true);
+			return thread;
+		});
+		scheduler.scheduleAtFixedRate(this::report, period, period, unit);
+	}
+
+	/**
+	 * Stops the schedule and logs the final values
+	 */
+	public synchronized void stop() {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+			scheduler = null;
+			this.report();
+		}
+	}
+
+	/**
+	 * @return number of operations logged
+	 */
+	public synchronized int report() {
+		int reported = 0;
+		for (Map.Entry<String, InMemoryMetricsRegistry.Snapshot> entry : registry.snapshot().entrySet()) {
+			InMemoryMetricsRegistry.Snapshot snapshot = entry.getValue();
+			Long previous = reportedCounts.put(entry.getKey(), snapshot.getCount());
+			if (previous != null && previous == snapshot.getCount() && snapshot.getInFlight() == 0) {
+				continue;
+			}
+			LOG.info("{} {}", entry.getKey(), snapshot);
+			reported++;
+		}
+		return reported;
+	}
+}
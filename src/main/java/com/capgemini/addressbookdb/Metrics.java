@@ -0,0 +1,98 @@
+package com.capgemini.addressbookdb;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Times the database, connection pool and file operations and hands the
+ * results to the configured {@link MetricsRegistry}. Operation names are
+ * "category.operation", e.g. "db.readData", "pool.acquire" or
+ * "io.writeCSV". Operations slower than their threshold are logged at WARN
+ * on the com.capgemini.addressbookdb.SlowOperations logger; a threshold can
+ * be set per operation or per category, otherwise the default applies.
+ */
+public final class Metrics {
+	private static final Logger SLOW_LOG = LogManager.getLogger("com.capgemini.addressbookdb.SlowOperations");
+
+	private static volatile MetricsRegistry registry = new InMemoryMetricsRegistry();
+	private static volatile long defaultSlowThresholdNanos = TimeUnit.SECONDS.toNanos(1);
+	private static final Map<String, Long> slowThresholdNanos = new ConcurrentHashMap<>();
+
+	@FunctionalInterface
+	public interface Operation<T, E extends Exception> {
+		T call() throws E;
+	}
+
+	@FunctionalInterface
+	public interface VoidOperation<E extends Exception> {
+		void run() throws E;
+	}
+
+	private Metrics() {
+	}
+
+	public static MetricsRegistry getRegistry() {
+		return registry;
+	}
+
+	public static void setRegistry(MetricsRegistry metricsRegistry) {
+		registry = metricsRegistry;
+	}
+
+	public static void setDefaultSlowThresholdMillis(long millis) {
+		defaultSlowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+	}
+
+	/**
+	 * @param operationOrCategory full operation name like "db.readData", or
+	 *                            just its category like "db"
+	 */
+	public static void setSlowThresholdMillis(String operationOrCategory, long millis) {
+		slowThresholdNanos.put(operationOrCategory, TimeUnit.MILLISECONDS.toNanos(millis));
+	}
+
+	/**
+	 * Runs the operation and records its latency and outcome, passing its
+	 * result and any exception through unchanged
+	 */
+	public static <T, E extends Exception> T time(String operation, Operation<T, E> body) throws E {
+		MetricsRegistry target = registry;
+		target.operationStarted(operation);
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			T result = body.call();
+			failed = false;
+			return result;
+		} finally {
+			completed(target, operation, System.nanoTime() - start, failed);
+		}
+	}
+
+	public static <E extends Exception> void run(String operation, VoidOperation<E> body) throws E {
+		time(operation, () -> {
+			body.run();
+			return null;
+		});
+	}
+
+	private static void completed(MetricsRegistry target, String operation, long elapsedNanos, boolean failed) {
+		target.operationCompleted(operation, elapsedNanos, failed);
+		if (elapsedNanos >= slowThreshold(operation)) {
+			SLOW_LOG.warn("Slow operation {} took {} ms{}", operation, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+					failed ? " and failed" : "");
+		}
+	}
+
+	private static long slowThreshold(String operation) {
+		Long threshold = slowThresholdNanos.get(operation);
+		if (threshold == null) {
+			int dot = operation.indexOf('.');
+			threshold = dot < 0 ? null : slowThresholdNanos.get(operation.substring(0, dot));
+		}
+		return threshold == null ? defaultSlowThresholdNanos : threshold;
+	}
+}
@@ -0,0 +1,23 @@
+package com.capgemini.addressbookdb;
+
+/**
+ * Receives the timings recorded through {@link Metrics}. The default
+ * {@link InMemoryMetricsRegistry} keeps counters, latency histograms and
+ * in-flight gauges per operation; an implementation bridging to an external
+ * monitoring system can be plugged in with {@link Metrics#setRegistry}.
+ * Implementations are called from many threads at once.
+ */
+public interface MetricsRegistry {
+	/**
+	 * Called when an operation begins, before any work is done
+	 */
+	void operationStarted(String operation);
+
+	/**
+	 * Called once for every started operation, whether it succeeded or threw
+	 * 
+	 * @param elapsedNanos wall clock time of the operation
+	 * @param failed       true when the operation ended with an exception
+	 */
+	void operationCompleted(String operation, long elapsedNanos, boolean failed);
+}
@@ -0,0 +1,27 @@
+package com.capgemini.addressbookdb;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A batched update that failed after some of its chunks were committed.
+ * Carries the rows affected by the committed chunks, so callers can bring
+ * their in-memory copies in line with what the database now holds.
+ */
+public class PartialUpdateException extends DatabaseException {
+	private static final long serialVersionUID = 1L;
+
+	private final Map<String, Integer> committedRows;
+
+	public PartialUpdateException(String msg, Map<String, Integer> committedRows) {
+		super(msg);
+		this.committedRows = Collections.unmodifiableMap(committedRows);
+	}
+
+	/**
+	 * @return rows affected for every name of the committed chunks
+	 */
+	public Map<String, Integer> getCommittedRows() {
+		return committedRows;
+	}
+}
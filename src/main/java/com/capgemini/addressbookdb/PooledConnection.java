@@ -0,0 +1,20 @@
+package com.capgemini.addressbookdb;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Connection handed out by the {@link ConnectionPool}. The cached prepare
+ * methods return statements owned by the pool, callers bind parameters and
+ * execute but never close them.
+ */
+public interface PooledConnection extends Connection {
+
+	PreparedStatement prepareCached(String sql, int autoGeneratedKeys) throws SQLException;
+
+	default PreparedStatement prepareCached(String sql) throws SQLException {
+		return prepareCached(sql, Statement.NO_GENERATED_KEYS);
+	}
+}
@@ -0,0 +1,112 @@
+package com.capgemini.addressbookdb;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies the versioned scripts under db/migration on the classpath, in
+ * order, and records each applied version in schema_version so every script
+ * runs once per database. Pools configured from properties run it before
+ * their first connection is handed out, see
+ * {@link ConnectionPoolConfig#isMigrateSchema()}.
+ */
+public class SchemaMigrator {
+	private static final String[] MIGRATIONS = { "V1__contact_state_city_name_index.sql",
+			"V2__contact_last_modified.sql" };
+
+	private final ConnectionPool connectionPool;
+
+	public SchemaMigrator(ConnectionPool connectionPool) {
+		this.connectionPool = connectionPool;
+	}
+
+	/**
+	 * @return number of scripts applied by this run
+	 * @throws DatabaseException
+	 */
+	public int migrate() throws DatabaseException {
+		try (Connection connection = connectionPool.getConnection()) {
+			return migrate(connection);
+		} catch (SQLException e) {
+			throw new DatabaseException("Unable to migrate the schema: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Migrates through the given connection, which stays open
+	 */
+	static int migrate(Connection connection) throws DatabaseException {
+		int applied = 0;
+		try {
+			try (Statement statement = connection.createStatement()) {
+				statement.execute("CREATE TABLE IF NOT EXISTS schema_version (version INT PRIMARY KEY, "
+						+ "script VARCHAR(200) NOT NULL, applied_on TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+			}
+			int currentVersion = currentVersion(connection);
+			for (String script : MIGRATIONS) {
+				int version = Integer.parseInt(script.substring(1, script.indexOf("__")));
+				if (version <= currentVersion) {
+					continue;
+				}
+				try (Statement statement = connection.createStatement()) {
+					for (String sql : readStatements(script)) {
+						statement.execute(sql);
+					}
+				}
+				try (PreparedStatement statement = connection
+						.prepareStatement("INSERT INTO schema_version (version, script) VALUES (?, ?)")) {
+					statement.setInt(1, version);
+					statement.setString(2, script);
+					statement.executeUpdate();
+				}
+				applied++;
+			}
+		} catch (SQLException | IOException e) {
+			throw new DatabaseException("Unable to migrate the schema: " + e.getMessage());
+		}
+		return applied;
+	}
+
+	private static int currentVersion(Connection connection) throws SQLException {
+		try (Statement statement = connection.createStatement();
+				ResultSet resultSet = statement.executeQuery("SELECT MAX(version) FROM schema_version")) {
+			return resultSet.next() ? resultSet.getInt(1) : 0;
+		}
+	}
+
+	private static List<String> readStatements(String script) throws IOException {
+		InputStream stream = SchemaMigrator.class.getResourceAsStream("/db/migration/" + script);
+		if (stream == null) {
+			throw new IOException("Missing migration script " + script);
+		}
+		List<String> statements = new ArrayList<>();
+		StringBuilder current = new StringBuilder();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.trim().startsWith("--")) {
+					continue;
+				}
+				current.append(line).append('\n');
+				if (line.trim().endsWith(";")) {
+					statements.add(current.substring(0, current.lastIndexOf(";")).trim());
+					current.setLength(0);
+				}
+			}
+		}
+		if (current.toString().trim().length() > 0) {
+			statements.add(current.toString().trim());
+		}
+		return statements;
+	}
+}
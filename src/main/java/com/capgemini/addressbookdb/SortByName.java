@@ -1,8 +1,55 @@
 package com.capgemini.addressbookdb;
 import java.util.Comparator;
 
+/**
+ * Orders contacts by "firstName lastName" as a single string, comparing the
+ * two names char by char in place instead of concatenating them
+ */
 public class SortByName implements Comparator<Contact> {
 	public int compare(Contact a, Contact b) {
-		return (a.getFirstName()+" "+a.getLastName()).compareTo(b.getFirstName()+" "+b.getLastName());
+		String aFirst = a.getFirstName();
+		String bFirst = b.getFirstName();
+		int common = Math.min(aFirst.length(), bFirst.length());
+		for (int i = 0; i < common; i++) {
+			char x = aFirst.charAt(i);
+			char y = bFirst.charAt(i);
+			if (x != y) {
+				return x - y;
+			}
+		}
+		if (aFirst.length() == bFirst.length()) {
+			return a.getLastName().compareTo(b.getLastName());
+		}
+		// one first name ends first: its ' ' and last name meet the rest of
+		// the longer first name
+		if (aFirst.length() < bFirst.length()) {
+			return -compareTail(bFirst, common, b.getLastName(), a.getLastName());
+		}
+		return compareTail(aFirst, common, a.getLastName(), b.getLastName());
+	}
+
+	/**
+	 * Compares longFirst[from..] + " " + longLast with " " + shortLast
+	 */
+	private static int compareTail(String longFirst, int from, String longLast, String shortLast) {
+		int longLength = longFirst.length() - from + 1 + longLast.length();
+		int shortLength = 1 + shortLast.length();
+		int common = Math.min(longLength, shortLength);
+		for (int i = 0; i < common; i++) {
+			char x = charAt(longFirst, from, longLast, i);
+			char y = i == 0 ? ' ' : shortLast.charAt(i - 1);
+			if (x != y) {
+				return x - y;
+			}
+		}
+		return longLength - shortLength;
+	}
+
+	private static char charAt(String first, int from, String last, int i) {
+		int firstChars = first.length() - from;
+		if (i < firstChars) {
+			return first.charAt(from + i);
+		}
+		return i == firstChars ? ' ' : last.charAt(i - firstChars - 1);
 	}
 }
@@ -0,0 +1,76 @@
+package com.capgemini.addressbookdb;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU cache of prepared statements for one physical connection, keyed by SQL
+ * text. Statements handed out stay owned by the cache and must not be closed
+ * by the caller; they are closed on eviction or when the connection is
+ * retired from the pool.
+ */
+class StatementCache {
+	private final Connection connection;
+	private final Map<String, PreparedStatement> statements;
+	private final AtomicLong hits;
+	private final AtomicLong misses;
+	private final AtomicLong evictions;
+
+	StatementCache(Connection connection, int maxSize, AtomicLong hits, AtomicLong misses, AtomicLong evictions) {
+		this.connection = connection;
+		this.hits = hits;
+		this.misses = misses;
+		this.evictions = evictions;
+		this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+				if (size() <= maxSize) {
+					return false;
+				}
+				evictions.incrementAndGet();
+				closeQuietly(eldest.getValue());
+				return true;
+			}
+		};
+	}
+
+	PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+		String key = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? "K:" + sql : sql;
+		PreparedStatement statement = statements.get(key);
+		if (statement != null && !statement.isClosed()) {
+			hits.incrementAndGet();
+			statement.clearParameters();
+			return statement;
+		}
+		misses.incrementAndGet();
+		statement = connection.prepareStatement(sql, autoGeneratedKeys);
+		statements.put(key, statement);
+		return statement;
+	}
+
+	int size() {
+		return statements.size();
+	}
+
+	void closeAll() {
+		for (PreparedStatement statement : statements.values()) {
+			closeQuietly(statement);
+		}
+		statements.clear();
+	}
+
+	private static void closeQuietly(PreparedStatement statement) {
+		try {
+			statement.close();
+		} catch (SQLException e) {
+			// the connection is usually on its way out as well
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package com.capgemini.addressbookdb;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns dense int codes to strings, so a column of few distinct values
+ * such as city or state can be stored as an int[]. Codes start at 0 in
+ * order of first appearance and never change; null has no code.
+ * <p>
+ * The dictionary also canonicalizes: {@link #canonical(String)} returns one
+ * shared instance per distinct value, so a million contacts in a few
+ * thousand cities hold a few thousand city strings, and equal values are
+ * usually the same reference. {@link #CITIES} and {@link #STATES} are shared
+ * by every ingest path; their entries are never dropped, which suits
+ * columns with a bounded set of values only.
+ * <p>
+ * Lookups of known values take no lock. Decoding reads an array that is
+ * only ever replaced by a larger copy.
+ */
+public class StringDictionary {
+	public static final int NULL = -1;
+	/** City names, also used for the address book names, which are cities */
+	public static final StringDictionary CITIES = new StringDictionary();
+	public static final StringDictionary STATES = new StringDictionary();
+
+	private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+	private volatile String[] values = new String[16];
+	private volatile String[] foldedValues = new String[16];
+	private volatile int size;
+
+	/**
+	 * @return the code of the value, adding it when it is new
+	 */
+	public int encode(String value) {
+		if (value == null) {
+			return NULL;
+		}
+		Integer code = codes.get(value);
+		return code != null ? code : this.add(value);
+	}
+
+	/**
+	 * @return the code of the value, or {@link #NULL} when it was never
+	 *         encoded
+	 */
+	public int codeOf(String value) {
+		Integer code = value == null ? null : codes.get(value);
+		return code == null ? NULL : code;
+	}
+
+	public String decode(int code) {
+		return code == NULL ? null : values[code];
+	}
+
+	/**
+	 * @return the shared instance equal to the value, adding it when it is new
+	 */
+	public String canonical(String value) {
+		if (value == null) {
+			return null;
+		}
+		int code = this.encode(value);
+		return values[code];
+	}
+
+	/**
+	 * @return the value in lower case, cached for values in the dictionary and
+	 *         computed for others without adding them
+	 */
+	public String folded(String value) {
+		int code = this.codeOf(value);
+		if (code != NULL) {
+			return foldedValues[code];
+		}
+		return value == null ? null : value.toLowerCase(Locale.ROOT);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	private synchronized int add(String value) {
+		Integer code = codes.get(value);
+		if (code != null) {
+			return code;
+		}
+		if (size == values.length) {
+			foldedValues = Arrays.copyOf(foldedValues, size * 2);
+			values = Arrays.copyOf(values, size * 2);
+		}
+		values[size] = value;
+		foldedValues[size] = value.toLowerCase(Locale.ROOT);
+		codes.put(value, size);
+		return size++;
+	}
+}
@@ -0,0 +1,83 @@
+package com.capgemini.addressbookdb;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Differences between the in-memory contacts and the database for a set of
+ * names: contacts only held in memory, contacts whose fields disagree with
+ * their row, and rows the memory does not know about.
+ */
+public class SyncDiff {
+	private final List<Contact> missingContacts = new ArrayList<>();
+	private final List<Stale> staleContacts = new ArrayList<>();
+	private final List<Contact> extraContacts = new ArrayList<>();
+
+	public static class Stale {
+		private final Contact local;
+		private final Contact database;
+
+		public Stale(Contact local, Contact database) {
+			this.local = local;
+			this.database = database;
+		}
+
+		public Contact getLocal() {
+			return local;
+		}
+
+		public Contact getDatabase() {
+			return database;
+		}
+
+		@Override
+		public String toString() {
+			return local.getFirstName() + " " + local.getLastName() + ": " + local.toString().trim() + " <> "
+					+ database.toString().trim();
+		}
+	}
+
+	void missing(Contact local) {
+		missingContacts.add(local);
+	}
+
+	void stale(Contact local, Contact database) {
+		staleContacts.add(new Stale(local, database));
+	}
+
+	void extra(Contact database) {
+		extraContacts.add(database);
+	}
+
+	/**
+	 * @return in-memory contacts without a row in the database
+	 */
+	public List<Contact> getMissingContacts() {
+		return Collections.unmodifiableList(missingContacts);
+	}
+
+	/**
+	 * @return in-memory contacts whose fields differ from their row
+	 */
+	public List<Stale> getStaleContacts() {
+		return Collections.unmodifiableList(staleContacts);
+	}
+
+	/**
+	 * @return database rows with a requested name that are not held in memory
+	 */
+	public List<Contact> getExtraContacts() {
+		return Collections.unmodifiableList(extraContacts);
+	}
+
+	public boolean isInSync() {
+		return missingContacts.isEmpty() && staleContacts.isEmpty() && extraContacts.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return "missing=" + missingContacts.size() + ", stale=" + staleContacts.size() + ", extra="
+				+ extraContacts.size();
+	}
+}
@@ -0,0 +1,16 @@
+package com.capgemini.addressbookdb;
+
+/**
+ * Carries a {@link DatabaseException} out of stream and callback code that
+ * cannot throw checked exceptions
+ */
+public class UncheckedDatabaseException extends RuntimeException {
+	public UncheckedDatabaseException(DatabaseException cause) {
+		super(cause.getMessage(), cause);
+	}
+
+	@Override
+	public synchronized DatabaseException getCause() {
+		return (DatabaseException) super.getCause();
+	}
+}
@@ -0,0 +1,2 @@
+-- Serves getContactForCityAndState: equality on state and city, rows already in fname, lname order
+CREATE INDEX idx_contact_state_city_name ON contact_table (state, city, fname, lname);
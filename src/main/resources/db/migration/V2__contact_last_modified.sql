@@ -0,0 +1,3 @@
+-- Change tracking for incremental sync: every insert and update stamps the row
+ALTER TABLE contact_table ADD COLUMN last_modified TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3);
+CREATE INDEX idx_contact_last_modified ON contact_table (last_modified);
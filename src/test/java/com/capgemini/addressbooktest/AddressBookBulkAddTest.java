@@ -0,0 +1,52 @@
+package com.capgemini.addressbooktest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import com.capgemini.addressbookdb.AddressBook;
+import com.capgemini.addressbookdb.Contact;
+
+public class AddressBookBulkAddTest {
+	@Test
+	public void givenSameNameWithOtherDetails_WhenHashed_ShouldMatchEquals() {
+		Contact aditya = new Contact("Aditya", "Kharade", "Station Road", "Akola", "Maharashtra", 444005L, 9988776655L,
+				null);
+		Contact moved = new Contact("Aditya", "Kharade", "Camp", "Pune", "Maharashtra", 411001L, 8877665544L, null);
+		assertEquals(aditya, moved);
+		assertEquals(aditya.hashCode(), moved.hashCode());
+		assertNotEquals(aditya, "Aditya Kharade");
+		assertNotEquals(aditya, null);
+		assertNotEquals(new Contact(null, "Kharade", null, null, null, 0L, 0L, null), aditya);
+	}
+
+	@Test
+	public void givenListChangedDirectly_WhenContactAdded_ShouldCheckAgainstCurrentContacts() {
+		AddressBook akola = new AddressBook("Akola");
+		akola.addContact(new Contact("Aditya", "Kharade", null, "Akola", "Maharashtra", 444005L, 1L, null));
+		akola.getContactList().set(0, new Contact("Neha", "Joshi", null, "Akola", "Maharashtra", 444001L, 2L, null));
+		akola.addContact(new Contact("Aditya", "Kharade", null, "Akola", "Maharashtra", 444005L, 1L, null));
+		akola.addContact(new Contact("Neha", "Joshi", null, "Akola", "Maharashtra", 444001L, 2L, null));
+		assertEquals(2, akola.getContactList().size());
+		assertEquals("Aditya", akola.getContactList().get(1).getFirstName());
+	}
+
+	@Test(timeout = 10000)
+	public void givenLargeLoadWithDuplicates_WhenBulkAdded_ShouldSkipDuplicatesInLinearTime() {
+		AddressBook akola = new AddressBook("Akola");
+		akola.getContactList().add(new Contact("First7", "Last7", null, "Akola", "Maharashtra", 444001L, 1L, null));
+		List<Contact> contacts = new ArrayList<>();
+		for (int i = 0; i < 100000; i++) {
+			contacts.add(new Contact("First" + i, "Last" + i, null, "Akola", "Maharashtra", 444001L, i, null));
+		}
+		contacts.add(new Contact("First42", "Last42", "Camp", "Akola", "Maharashtra", 444002L, 2L, null));
+		assertEquals(99999, akola.addContacts(contacts));
+		assertEquals(100000, akola.getContactList().size());
+		akola.deleteContact("First42 Last42");
+		akola.addContact(new Contact("First42", "Last42", "Camp", "Akola", "Maharashtra", 444002L, 2L, null));
+		assertEquals(100000, akola.getContactList().size());
+		assertEquals(444002L, akola.getContactList().get(99999).getZip());
+	}
+}
@@ -0,0 +1,373 @@
+package com.capgemini.addressbooktest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import com.capgemini.addressbookdb.AddressBookDB;
+import com.capgemini.addressbookdb.AddressBookService;
+import com.capgemini.addressbookdb.AddressBookService.IOService;
+import com.capgemini.addressbookdb.BulkLoadResult;
+import com.capgemini.addressbookdb.CachingAddressBookDB;
+import com.capgemini.addressbookdb.ConnectionPool;
+import com.capgemini.addressbookdb.ConnectionPoolConfig;
+import com.capgemini.addressbookdb.ContactPage;
+import com.capgemini.addressbookdb.Contact;
+import com.capgemini.addressbookdb.ContactWriteExecutor;
+import com.capgemini.addressbookdb.DatabaseException;
+import com.capgemini.addressbookdb.PartialUpdateException;
+import com.capgemini.addressbookdb.PooledConnection;
+import com.capgemini.addressbookdb.SchemaMigrator;
+import com.capgemini.addressbookdb.SyncDiff;
+
+public class AddressBookDBTest {
+	private ConnectionPool connectionPool;
+	private AddressBookDB addressBookDB;
+
+	@Before
+	public void setup() throws DatabaseException, SQLException {
+		ConnectionPoolConfig config = new ConnectionPoolConfig();
+		config.setDriverClassName("org.h2.Driver");
+		config.setJdbcURL("jdbc:h2:mem:addressbookdbtest;MODE=MySQL;DB_CLOSE_DELAY=-1");
+		config.setUserName("sa");
+		config.setPassword("");
+		config.setHousekeepingPeriodMillis(0);
+		connectionPool = new ConnectionPool(config);
+		try (Connection connection = connectionPool.getConnection();
+				Statement statement = connection.createStatement()) {
+			statement.execute("RUNSCRIPT FROM 'classpath:schema.sql'");
+		}
+		addressBookDB = new AddressBookDB(connectionPool);
+	}
+
+	@After
+	public void tearDown() {
+		connectionPool.shutdown();
+	}
+
+	private List<Contact> newContacts(int count) {
+		List<Contact> contacts = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			contacts.add(new Contact("First" + i, "Last" + i, "Street " + i, "Akola", "Maharashtra", 444000L + i,
+					9000000000L + i, "contact" + i + "@gmail.com", LocalDate.of(2021, 01, 01), 1));
+		}
+		return contacts;
+	}
+
+	@Test
+	public void givenContacts_WhenBulkAdded_ShouldInsertEveryChunk() throws DatabaseException {
+		BulkLoadResult result = addressBookDB.addContacts(newContacts(5), 2);
+		assertEquals(5, result.getAddedCount());
+		assertEquals(0, result.getFailedCount());
+		assertEquals(9, result.getAddedContacts().get(4).id);
+		assertEquals(9, addressBookDB.readData().size());
+	}
+
+	@Test
+	public void givenInvalidRowInChunk_WhenBulkAdded_ShouldReportOnlyThatRow() throws DatabaseException {
+		List<Contact> contacts = newContacts(4);
+		contacts.get(1).setFirstName(null);
+		BulkLoadResult result = addressBookDB.addContacts(contacts, 3);
+		assertEquals(3, result.getAddedCount());
+		assertEquals(1, result.getFailedCount());
+		assertTrue(result.getFailures().get(0).getContact() == contacts.get(1));
+		assertEquals(7, addressBookDB.readData().size());
+	}
+
+	@Test
+	public void givenSecondOfThreeChunksFails_WhenBulkAdded_ShouldKeepCommittedChunksInResult()
+			throws DatabaseException {
+		List<Contact> rows = newContacts(6);
+		rows.get(2).setFirstName(null);
+		// shuts the pool down while the second chunk is written, so the third
+		// chunk cannot get a connection
+		List<Contact> contacts = new AbstractList<Contact>() {
+			@Override
+			public Contact get(int index) {
+				if (index == 3) {
+					connectionPool.shutdown();
+				}
+				return rows.get(index);
+			}
+
+			@Override
+			public int size() {
+				return rows.size();
+			}
+		};
+		BulkLoadResult result = addressBookDB.addContacts(contacts, 2);
+		assertEquals(3, result.getAddedCount());
+		assertEquals("First3", result.getAddedContacts().get(2).getFirstName());
+		assertEquals(3, result.getFailedCount());
+		assertTrue(result.getFailures().get(0).getContact() == rows.get(2));
+		assertTrue(result.getFailures().get(2).getReason().contains("shut down"));
+	}
+
+	@Test
+	public void givenContacts_WhenAddedInParallel_ShouldAllBeAddedToService() {
+		AddressBookService addressBookService = new AddressBookService(addressBookDB);
+		addressBookService.setBulkLoadChunkSize(3);
+		BulkLoadResult result = addressBookService.addContactToDB(newContacts(20));
+		assertEquals(20, result.getAddedCount());
+		assertEquals(20, addressBookService.countEntries(IOService.DB_IO));
+	}
+
+	@Test(timeout = 10000)
+	public void givenShutDownExecutor_WhenTaskSubmitted_ShouldFailFutureAndKeepCapacity() throws Exception {
+		ContactWriteExecutor writeExecutor = new ContactWriteExecutor(addressBookDB, 1, 0, 10);
+		writeExecutor.shutdown();
+		for (int i = 0; i < 2; i++) {
+			CompletableFuture<Integer> future = writeExecutor.submit(() -> 1);
+			try {
+				future.get();
+				fail("Expected the task to be rejected");
+			} catch (ExecutionException e) {
+				assertTrue(e.getCause() instanceof RejectedExecutionException);
+			}
+		}
+	}
+
+	@Test
+	public void givenNewPhoneNumbers_WhenBatchUpdated_ShouldReportRowsPerNameAndPatchContacts()
+			throws DatabaseException {
+		AddressBookService addressBookService = new AddressBookService(addressBookDB);
+		addressBookService.readContactData(IOService.DB_IO);
+		Map<String, Long> contactMap = new LinkedHashMap<>();
+		contactMap.put("Aditya", 1111111111L);
+		contactMap.put("Neha", 2222222222L);
+		contactMap.put("Nobody", 3333333333L);
+		Map<String, Integer> affectedRows = addressBookService.updatePhoneNumber(contactMap);
+		assertEquals(Integer.valueOf(1), affectedRows.get("Aditya"));
+		assertEquals(Integer.valueOf(1), affectedRows.get("Neha"));
+		assertEquals(Integer.valueOf(0), affectedRows.get("Nobody"));
+		assertEquals(2222222222L, addressBookService.getContact("Neha").getPhoneNumber());
+		assertEquals(2222222222L, addressBookDB.getContactFromData("Neha").get(0).getPhoneNumber());
+	}
+
+	@Test
+	public void givenSecondChunkFails_WhenBatchUpdated_ShouldPatchContactsOfCommittedChunk() throws Exception {
+		try (Connection connection = connectionPool.getConnection();
+				Statement statement = connection.createStatement()) {
+			statement.execute("ALTER TABLE contact_table ADD CONSTRAINT positive_phone CHECK (phone > 0)");
+		}
+		AddressBookService addressBookService = new AddressBookService(addressBookDB);
+		addressBookService.setBulkLoadChunkSize(2);
+		addressBookService.readContactData(IOService.DB_IO);
+		Map<String, Long> contactMap = new LinkedHashMap<>();
+		contactMap.put("Aditya", 1111111111L);
+		contactMap.put("Rahul", 2222222222L);
+		contactMap.put("Neha", -1L);
+		try {
+			addressBookService.updatePhoneNumber(contactMap);
+			fail("Expected the second chunk to fail");
+		} catch (PartialUpdateException e) {
+			assertEquals(2, e.getCommittedRows().size());
+		}
+		assertEquals(2222222222L, addressBookService.getContact("Rahul").getPhoneNumber());
+		assertEquals(2222222222L, addressBookDB.getContactFromData("Rahul").get(0).getPhoneNumber());
+		assertEquals(6655443322L, addressBookService.getContact("Neha").getPhoneNumber());
+		assertTrue(addressBookService.checkContactInSyncWithDB(Arrays.asList("Aditya", "Rahul", "Neha")));
+	}
+
+	@Test
+	public void givenContactsInDB_WhenStreamed_ShouldMapEveryRowAndReleaseConnection() throws DatabaseException {
+		List<Contact> streamed = new ArrayList<>();
+		addressBookDB.readData(streamed::add);
+		assertEquals(4, streamed.size());
+		assertEquals("Pune", streamed.get(2).getCity());
+		assertEquals(0, connectionPool.getActiveCount());
+		try (Stream<Contact> contacts = addressBookDB.streamData()) {
+			assertEquals("Aditya", contacts.findFirst().get().getFirstName());
+		}
+		assertEquals(0, connectionPool.getActiveCount());
+	}
+
+	@Test
+	public void givenPageSize_WhenPagedThroughContacts_ShouldVisitEveryContactOnce() throws DatabaseException {
+		addressBookDB.addContacts(newContacts(3), 10);
+		List<Contact> visited = new ArrayList<>();
+		ContactPage page = addressBookDB.readPage(null, 3);
+		visited.addAll(page.getContacts());
+		while (page.hasNext()) {
+			page = addressBookDB.readPage(page.getNextToken(), 3);
+			visited.addAll(page.getContacts());
+		}
+		assertEquals(7, visited.size());
+		assertEquals(7, visited.get(6).id);
+	}
+
+	@Test
+	public void givenTamperedToken_WhenPaged_ShouldRejectToken() throws Exception {
+		String[] tokens = { token(-1), token(2, 0x03, 0xe8, '1'), token(3, 0, 1, '1', 0, 1, '1', 0, 1, '1'),
+				token(2, 0, 1, '1', 0, 1, '1', 0) };
+		for (String token : tokens) {
+			try {
+				addressBookDB.readPage(token, 3);
+				fail("Expected " + token + " to be rejected");
+			} catch (IllegalArgumentException e) {
+				assertEquals("Invalid continuation token", e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Token of the "all" query with the given key count, followed by the raw
+	 * key bytes
+	 */
+	private static String token(int keyCount, int... keyBytes) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeUTF("all");
+		out.writeByte(keyCount);
+		for (int keyByte : keyBytes) {
+			out.writeByte(keyByte);
+		}
+		out.flush();
+		return Base64.getUrlEncoder().encodeToString(bytes.toByteArray());
+	}
+
+	@Test
+	public void givenCityAndState_WhenPaged_ShouldFollowNameOrder() throws DatabaseException {
+		ContactPage page = addressBookDB.getContactForCityAndStatePage("Akola", "Maharashtra", null, 1);
+		assertEquals("Aditya", page.getContacts().get(0).getFirstName());
+		page = addressBookDB.getContactForCityAndStatePage("Akola", "Maharashtra", page.getNextToken(), 1);
+		assertEquals("Rahul", page.getContacts().get(0).getFirstName());
+		assertEquals(false, page.hasNext());
+	}
+
+	@Test
+	public void givenCachedContact_WhenReadAgain_ShouldHitCacheUntilUpdated() throws Exception {
+		CachingAddressBookDB cachingAddressBookDB = new CachingAddressBookDB(connectionPool, 100, 60);
+		cachingAddressBookDB.getContactFromData("Priya");
+		cachingAddressBookDB.getContactFromData("Priya");
+		assertEquals(1, cachingAddressBookDB.getCacheStats().get("getContactFromData").hitCount());
+		cachingAddressBookDB.updatePersonsData("Priya", 5555555555L);
+		assertEquals(5555555555L, cachingAddressBookDB.getContactFromData("Priya").get(0).getPhoneNumber());
+		assertEquals(2, cachingAddressBookDB.getCacheStats().get("getContactFromData").missCount());
+	}
+
+	@Test
+	public void givenCachedContact_WhenReturnedCopyChanged_ShouldReadUnchangedFromCache() throws Exception {
+		CachingAddressBookDB cachingAddressBookDB = new CachingAddressBookDB(connectionPool, 100, 60);
+		Contact priya = cachingAddressBookDB.getContactFromData("Priya").get(0);
+		long phoneNumber = priya.getPhoneNumber();
+		priya.setPhoneNumber(5555555555L);
+		Contact reread = cachingAddressBookDB.getContactFromData("Priya").get(0);
+		assertEquals(phoneNumber, reread.getPhoneNumber());
+		assertEquals(1, cachingAddressBookDB.getCacheStats().get("getContactFromData").hitCount());
+		assertTrue(reread != priya);
+	}
+
+	@Test
+	public void givenWriteDuringCachedRead_WhenReadAgain_ShouldNotServeRowsFromBeforeWrite() throws Exception {
+		AtomicReference<Runnable> onRelease = new AtomicReference<>();
+		// runs the hook when a borrowed connection is given back, i.e. after a
+		// read has its rows but before it returns them to the cache
+		ConnectionPool hookedPool = new ConnectionPool(connectionPool.getConfig()) {
+			@Override
+			public Connection getConnection() throws DatabaseException {
+				PooledConnection connection = (PooledConnection) super.getConnection();
+				return (Connection) Proxy.newProxyInstance(PooledConnection.class.getClassLoader(),
+						new Class<?>[] { PooledConnection.class }, (proxy, method, args) -> {
+							Runnable hook = method.getName().equals("close") ? onRelease.getAndSet(null) : null;
+							if (hook != null) {
+								hook.run();
+							}
+							try {
+								return method.invoke(connection, args);
+							} catch (InvocationTargetException e) {
+								throw e.getCause();
+							}
+						});
+			}
+		};
+		try {
+			CachingAddressBookDB cachingAddressBookDB = new CachingAddressBookDB(hookedPool, 100, 60);
+			onRelease.set(() -> {
+				try {
+					cachingAddressBookDB.updatePersonsData("Priya", 5555555555L);
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+			});
+			assertEquals(7766554433L, cachingAddressBookDB.getContactFromData("Priya").get(0).getPhoneNumber());
+			assertEquals(5555555555L, cachingAddressBookDB.getContactFromData("Priya").get(0).getPhoneNumber());
+		} finally {
+			hookedPool.shutdown();
+		}
+	}
+
+	@Test
+	public void givenSyncedService_WhenOneContactChanges_ShouldMergeOnlyThatContact() throws Exception {
+		new SchemaMigrator(connectionPool).migrate();
+		AddressBookService addressBookService = new AddressBookService(addressBookDB);
+		addressBookService.setSyncOverlapMillis(0);
+		assertEquals(4, addressBookService.syncContactData());
+		Thread.sleep(5);
+		addressBookDB.updatePersonsData("Rahul", 4444444444L);
+		assertEquals(1, addressBookService.syncContactData());
+		assertEquals(4, addressBookService.countEntries(IOService.DB_IO));
+		assertEquals(4444444444L, addressBookService.getContact("Rahul").getPhoneNumber());
+	}
+
+	@Test
+	public void givenPoolThatMigrates_WhenFirstUsed_ShouldApplySchemaBeforeSync() throws Exception {
+		ConnectionPoolConfig config = new ConnectionPoolConfig();
+		config.setDriverClassName("org.h2.Driver");
+		config.setJdbcURL("jdbc:h2:mem:addressbookdbtest;MODE=MySQL;DB_CLOSE_DELAY=-1");
+		config.setUserName("sa");
+		config.setPassword("");
+		config.setHousekeepingPeriodMillis(0);
+		config.setMigrateSchema(true);
+		ConnectionPool migratingPool = new ConnectionPool(config);
+		try {
+			AddressBookService addressBookService = new AddressBookService(new AddressBookDB(migratingPool));
+			assertEquals(4, addressBookService.syncContactData());
+			assertEquals(0, new SchemaMigrator(migratingPool).migrate());
+		} finally {
+			migratingPool.shutdown();
+		}
+	}
+
+	@Test
+	public void givenDriftedContacts_WhenReconciled_ShouldReportMissingStaleAndExtra() throws Exception {
+		AddressBookService addressBookService = new AddressBookService(addressBookDB);
+		addressBookService.readContactData(IOService.DB_IO);
+		assertTrue(addressBookService.checkContactInSyncWithDB(Arrays.asList("Aditya", "Rahul", "Priya")));
+		addressBookService.getContact("Priya").setEmail("priya@example.com");
+		addressBookService.addContactToAddressBook(new Contact("Rahul", "Kulkarni", "Station Road", "Akola",
+				"Maharashtra", 444001L, 9876543210L, "rahul@gmail.com"));
+		addressBookDB.addContact("Aditya", "Joshi", "MG Road", 411001L, "Pune", "Maharashtra", 9123456780L,
+				"aditya@gmail.com", LocalDate.of(2021, 01, 01), 2);
+		SyncDiff diff = addressBookService.reconcileWithDB(Arrays.asList("Aditya", "Rahul", "Priya", "Nobody"));
+		assertEquals("Kulkarni", diff.getMissingContacts().get(0).getLastName());
+		assertEquals("priya@example.com", diff.getStaleContacts().get(0).getLocal().getEmail());
+		assertEquals("Joshi", diff.getExtraContacts().get(0).getLastName());
+		assertEquals("missing=1, stale=1, extra=1", diff.toString());
+		assertEquals(false, addressBookService.checkContactInSyncWithDB(Arrays.asList("Priya")));
+	}
+}
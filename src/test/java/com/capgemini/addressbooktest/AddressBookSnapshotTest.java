@@ -0,0 +1,80 @@
+package com.capgemini.addressbooktest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import com.capgemini.addressbookdb.AddressBook;
+import com.capgemini.addressbookdb.AddressBookSnapshot;
+import com.capgemini.addressbookdb.Contact;
+import com.capgemini.addressbookdb.ContactIndex;
+
+public class AddressBookSnapshotTest {
+	private Path file;
+	private AddressBookSnapshot snapshot;
+	private Contact aditya;
+
+	@Before
+	public void setup() throws IOException {
+		file = Files.createTempFile("addressbook", ".snapshot");
+		aditya = new Contact("Aditya", "Kharade", "Flat 4, Sai Apartments", "Akola", "Maharashtra", 444005L,
+				9988776655L, "aditya@gmail.com", LocalDate.of(1969, 12, 31), 1);
+		Contact neha = new Contact("Neha", "Joshi", null, "Bengaluru", "Karnataka", 560001L, 6655443322L, null);
+		AddressBook akola = new AddressBook("Akola");
+		akola.getContactList().add(aditya);
+		AddressBook bengaluru = new AddressBook("Bengaluru");
+		bengaluru.getContactList().add(neha);
+		Map<String, AddressBook> cityBookMap = new HashMap<>();
+		cityBookMap.put("Akola", akola);
+		cityBookMap.put("Bengaluru", bengaluru);
+		Map<String, Map<String, AddressBook>> stateBookMap = new HashMap<>();
+		stateBookMap.put("Maharashtra", cityBookMap);
+		stateBookMap.put("Karnataka", cityBookMap);
+		snapshot = new AddressBookSnapshot(cityBookMap, stateBookMap, Arrays.asList(aditya, neha));
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	@Test
+	public void givenSnapshot_WhenSavedAndLoaded_ShouldKeepContactsAndSharedBooks() throws IOException {
+		snapshot.save(file);
+		ContactIndex contactIndex = new ContactIndex();
+		AddressBookSnapshot loaded = AddressBookSnapshot.load(file, contactIndex);
+		AddressBook akola = loaded.getCityBookMap().get("Akola");
+		Contact loadedAditya = akola.getContactList().get(0);
+		assertEquals(aditya.contentHash(), loadedAditya.contentHash());
+		assertEquals(LocalDate.of(1969, 12, 31), loadedAditya.date);
+		assertEquals(1, loadedAditya.addId);
+		assertSame(loadedAditya, loaded.getContacts().get(0));
+		assertSame(loaded.getCityBookMap(), loaded.getStateBookMap().get("Karnataka"));
+		assertEquals(1, contactIndex.countByCity("Bengaluru"));
+	}
+
+	@Test
+	public void givenDamagedSnapshot_WhenLoaded_ShouldFailTheChecksum() throws IOException {
+		snapshot.save(file);
+		byte[] bytes = Files.readAllBytes(file);
+		bytes[bytes.length / 2] ^= 1;
+		Files.write(file, bytes);
+		try {
+			AddressBookSnapshot.load(file, null);
+			fail("damaged snapshot was loaded");
+		} catch (IOException e) {
+			assertTrue(e.getMessage().contains("checksum"));
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package com.capgemini.addressbooktest;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Test;
+import com.capgemini.addressbookdb.AddressBook;
+import com.capgemini.addressbookdb.Contact;
+import com.capgemini.addressbookdb.SortByName;
+
+public class AddressBookSortedViewTest {
+	private AddressBook akola;
+
+	@Before
+	public void setup() {
+		akola = new AddressBook("Akola");
+		akola.addContact(new Contact("Rahul", "Deshmukh", "Camp", "Akola", "Maharashtra", 444004L, 8877665544L, null));
+		akola.addContact(new Contact("Aniket", "Sarap", "MG Road", "Akola", "Maharashtra", 444001L, 8850273350L, null));
+		akola.enableSortedViews();
+		akola.addContact(new Contact("Aditya", "Kharade", "Station Road", "Akola", "Maharashtra", 444005L,
+				9988776655L, null));
+		akola.addContact(new Contact("Neha", "Joshi", "Civil Lines", "Akola", "Maharashtra", 444001L, 6655443322L,
+				null));
+	}
+
+	private static String firstNames(List<Contact> contacts) {
+		return contacts.stream().map(Contact::getFirstName).collect(Collectors.joining(","));
+	}
+
+	@Test
+	public void givenSortedViews_WhenContactsAddedAndDeleted_ShouldSortWithoutComparing() {
+		assertEquals("Aditya,Aniket,Neha,Rahul", firstNames(akola.getContactsSortedByName()));
+		akola.deleteContact("Aniket Sarap");
+		akola.sortByZip();
+		assertEquals("Neha,Rahul,Aditya", firstNames(akola.getContactList()));
+		akola.sortByName();
+		assertEquals("Aditya,Neha,Rahul", firstNames(akola.getContactList()));
+	}
+
+	@Test
+	public void givenZipRange_WhenQueried_ShouldMatchWithAndWithoutViews() {
+		assertEquals("Aniket,Neha,Rahul", firstNames(akola.getContactsByZipRange(444001L, 444004L)));
+		AddressBook plain = new AddressBook("Akola");
+		akola.getContactList().forEach(plain::addContact);
+		assertEquals("Aniket,Neha,Rahul", firstNames(plain.getContactsByZipRange(444001L, 444004L)));
+		assertEquals("", firstNames(akola.getContactsByZipRange(444006L, 444001L)));
+	}
+
+	@Test
+	public void givenNamesJoiningToSameFullName_WhenSortedByView_ShouldKeepBothContacts() {
+		Contact maryAnn = new Contact("Mary Ann", "Lee", null, "Akola", "Maharashtra", 444003L, 1L, null);
+		Contact mary = new Contact("Mary", "Ann Lee", null, "Akola", "Maharashtra", 444002L, 2L, null);
+		akola.addContact(maryAnn);
+		akola.addContact(mary);
+		akola.sortByName();
+		assertEquals(6, new HashSet<>(akola.getContactList()).size());
+		assertEquals("Aditya,Aniket,Mary Ann,Mary,Neha,Rahul", firstNames(akola.getContactList()));
+		List<Contact> byComparator = new ArrayList<>(akola.getContactList());
+		byComparator.sort(new SortByName());
+		assertEquals(byComparator, akola.getContactList());
+
+		akola.getContactList().remove(maryAnn);
+		akola.getContactList().set(0, new Contact("Zara", "Khan", null, "Akola", "Maharashtra", 444009L, 3L, null));
+		assertEquals("Aniket,Mary,Neha,Rahul,Zara", firstNames(akola.getContactsSortedByName()));
+		assertEquals("Aniket,Neha,Mary", firstNames(akola.getContactsByZipRange(444001L, 444002L)));
+	}
+}
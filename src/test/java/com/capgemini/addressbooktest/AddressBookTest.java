@@ -55,7 +55,7 @@ public class AddressBookTest {
 	public void givenContactInDB_WhenRetrievedForCityAndState_ShouldMatchContactCount() throws DatabaseException {
 		AddressBookService addressBookService = new AddressBookService();
 		addressBookService.readContactData(IOService.DB_IO);
-		List<Contact> resultList = addressBookService.getContactForCityAndState("Akola", "Maharashta");
+		List<Contact> resultList = addressBookService.getContactForCityAndState("Akola", "Maharashtra");
 		assertEquals(2, resultList.size());
 	}
 
@@ -0,0 +1,71 @@
+package com.capgemini.addressbooktest;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import com.capgemini.addressbookdb.ColumnarContactStore;
+import com.capgemini.addressbookdb.Contact;
+
+public class ColumnarContactStoreTest {
+	private ColumnarContactStore store;
+	private Contact aditya;
+
+	@Before
+	public void setup() {
+		aditya = new Contact("Aditya", "Kharade", "Station Road", "Akola", "Maharashtra", 444005L, 9988776655L,
+				"aditya@gmail.com", LocalDate.of(2019, 5, 12), 1);
+		List<Contact> contacts = Arrays.asList(aditya,
+				new Contact("Neha", "Joshi", null, "Bengaluru", "Karnataka", 560001L, 6655443322L, null),
+				new Contact("Aniket", "Sarap", "MG Road", "Akola", "Maharashtra", 444001L, 8850273350L, null),
+				new Contact("Rahul", "Deshmukh", "Camp", "Pune", "Maharashtra", 411001L, 8877665544L, null));
+		store = new ColumnarContactStore(contacts);
+	}
+
+	@Test
+	public void givenContacts_WhenStoredInColumns_ShouldReadBackAndScanByState() {
+		Contact stored = store.get(0);
+		assertEquals(aditya.contentHash(), stored.contentHash());
+		assertEquals(1, stored.addId);
+		assertNull(store.get(1).getAddress());
+		assertEquals(3, store.countByState("Maharashtra"));
+		assertEquals(0, store.countByState("Goa"));
+		assertEquals(Integer.valueOf(3), store.countByState().get("Maharashtra"));
+		assertEquals(2, store.countByState().size());
+		assertEquals(2, store.getByCity("Akola").size());
+		StringBuilder names = new StringBuilder();
+		store.forEach(view -> names.append(view.getFirstName()).append(view.getCity().charAt(0)));
+		assertEquals("AdityaANehaBAniketARahulP", names.toString());
+	}
+
+	@Test
+	public void givenContacts_WhenSortedRemovedAndOverwritten_ShouldKeepRowsConsistent() {
+		assertArrayEquals(new int[] { 3, 2, 0, 1 }, store.rowsSortedByZip());
+		store.remove(0);
+		assertEquals(3, store.size());
+		assertEquals("Rahul", store.get(0).getFirstName());
+		assertEquals(2, store.countByState("Maharashtra"));
+		store.set(1, new Contact("Neha", "Joshi", "Civil Lines", "Panaji", "Goa", 403001L, 6655443322L, null));
+		assertEquals("Civil Lines", store.get(1).getAddress());
+		assertEquals(1, store.countByState("Goa"));
+	}
+
+	@Test
+	public void givenContactFailingToWrite_WhenAddedInBulk_ShouldKeepEarlierRowsOnly() {
+		Contact priya = new Contact("Priya", "Patil", null, "Pune", "Maharashtra", 411002L, 7766554433L, null);
+		try {
+			store.addAll(Arrays.asList(priya, null));
+			fail("Expected the null contact to be rejected");
+		} catch (NullPointerException e) {
+			assertEquals(5, store.size());
+			assertEquals("Priya", store.get(4).getFirstName());
+			assertEquals(4, store.countByState("Maharashtra"));
+		}
+	}
+}
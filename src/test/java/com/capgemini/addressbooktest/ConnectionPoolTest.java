@@ -0,0 +1,108 @@
+package com.capgemini.addressbooktest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import com.capgemini.addressbookdb.AddressBookDB;
+import com.capgemini.addressbookdb.ConnectionPool;
+import com.capgemini.addressbookdb.ConnectionPoolConfig;
+import com.capgemini.addressbookdb.Contact;
+import com.capgemini.addressbookdb.DatabaseException;
+
+public class ConnectionPoolTest {
+	private ConnectionPool connectionPool;
+
+	@Before
+	public void setup() throws DatabaseException, SQLException {
+		ConnectionPoolConfig config = new ConnectionPoolConfig();
+		config.setDriverClassName("org.h2.Driver");
+		config.setJdbcURL("jdbc:h2:mem:pooltest;MODE=MySQL;DB_CLOSE_DELAY=-1");
+		config.setUserName("sa");
+		config.setPassword("");
+		config.setMaxPoolSize(2);
+		config.setMinIdle(0);
+		config.setAcquireTimeoutMillis(200);
+		config.setHousekeepingPeriodMillis(0);
+		connectionPool = new ConnectionPool(config);
+		try (Connection connection = connectionPool.getConnection();
+				Statement statement = connection.createStatement()) {
+			statement.execute("RUNSCRIPT FROM 'classpath:schema.sql'");
+		}
+	}
+
+	@After
+	public void tearDown() {
+		connectionPool.shutdown();
+	}
+
+	@Test
+	public void givenReturnedConnection_WhenBorrowedAgain_ShouldReusePhysicalConnection() throws Exception {
+		connectionPool.getConnection().close();
+		connectionPool.getConnection().close();
+		assertEquals(1, connectionPool.getCreatedCount());
+		assertEquals(3, connectionPool.getAcquiredCount());
+		assertEquals(0, connectionPool.getActiveCount());
+		assertEquals(1, connectionPool.getIdleCount());
+	}
+
+	@Test(expected = DatabaseException.class)
+	public void givenExhaustedPool_WhenBorrowed_ShouldTimeOut() throws Exception {
+		connectionPool.getConnection();
+		connectionPool.getConnection();
+		connectionPool.getConnection();
+	}
+
+	@Test
+	public void givenBrokenIdleConnection_WhenBorrowed_ShouldBeReplaced() throws Exception {
+		Connection connection = connectionPool.getConnection();
+		Connection physicalConnection = connection.unwrap(Connection.class);
+		connection.close();
+		physicalConnection.close();
+		try (Connection replacement = connectionPool.getConnection()) {
+			assertTrue(replacement.isValid(1));
+		}
+		assertEquals(1, connectionPool.getValidationFailureCount());
+	}
+
+	@Test
+	public void givenConnectionHeldPastThreshold_WhenChecked_ShouldReportLeak() throws Exception {
+		connectionPool.getConfig().setLeakDetectionThresholdMillis(1);
+		Connection connection = connectionPool.getConnection();
+		Thread.sleep(10);
+		assertEquals(1, connectionPool.detectLeaks());
+		assertEquals(0, connectionPool.detectLeaks());
+		connection.close();
+		assertEquals(1, connectionPool.getLeakCount());
+	}
+
+	@Test
+	public void givenPooledAddressBookDB_WhenRead_ShouldReturnAllContacts() throws DatabaseException {
+		AddressBookDB addressBookDB = new AddressBookDB(connectionPool);
+		List<Contact> contactList = addressBookDB.readData();
+		assertEquals(4, contactList.size());
+		assertEquals(0, connectionPool.getActiveCount());
+	}
+
+	@Test
+	public void givenRepeatedQueries_WhenExecuted_ShouldReuseCachedStatement() throws DatabaseException {
+		AddressBookDB addressBookDB = new AddressBookDB(connectionPool);
+		addressBookDB.getContactFromData("Aditya");
+		addressBookDB.getContactFromData("Rahul");
+		List<Contact> contactList = addressBookDB.getContactFromData("Neha");
+		assertEquals("Joshi", contactList.get(0).getLastName());
+		assertEquals(1, connectionPool.getStatementCacheMisses());
+		assertEquals(2, connectionPool.getStatementCacheHits());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void givenDisabledStatementCache_WhenConfigured_ShouldBeRejected() {
+		new ConnectionPoolConfig().setStatementCacheSize(0);
+	}
+}
@@ -0,0 +1,85 @@
+package com.capgemini.addressbooktest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import com.capgemini.addressbookdb.Contact;
+import com.capgemini.addressbookdb.ContactCsvCodec;
+import com.capgemini.addressbookdb.StringDictionary;
+
+public class ContactCsvCodecTest {
+	private Path file;
+
+	@Before
+	public void setup() throws IOException {
+		file = Files.createTempFile("contacts", ".csv");
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	@Test
+	public void givenFieldsWithCommasQuotesAndLineBreaks_WhenWrittenAndRead_ShouldRoundTrip() throws IOException {
+		Contact quoted = new Contact("Aditya", "Kharade", "Flat 4, \"Sai\" Apartments\nRanpise Nagar", "Akola",
+				"Maharashtra", 444005L, 9988776655L, "aditya@gmail.com", LocalDate.of(2019, 5, 12), 1);
+		Contact sparse = new Contact("Neha", "", null, "Bengaluru", "Karnataka", 0L, 6655443322L, null);
+		ContactCsvCodec.write(file, Arrays.asList(quoted, sparse));
+		List<Contact> contacts = ContactCsvCodec.readAll(file);
+		assertEquals(2, contacts.size());
+		assertEquals(quoted.contentHash(), contacts.get(0).contentHash());
+		assertEquals("", contacts.get(1).getLastName());
+		assertNull(contacts.get(1).getAddress());
+		assertNull(contacts.get(1).date);
+		assertEquals(sparse.contentHash(), contacts.get(1).contentHash());
+	}
+
+	@Test
+	public void givenLargeFile_WhenReadInParallel_ShouldMatchInOrderAndShareCityAndState() throws IOException {
+		List<Contact> written = new ArrayList<>();
+		for (int i = 0; i < 60000; i++) {
+			written.add(new Contact("First" + i, "Last, " + i, "Street " + i, "Pune", "Maharashtra", 411000L + i,
+					9000000000L + i, "contact" + i + "@gmail.com", LocalDate.of(2020, 1, 1).plusDays(i % 1000), 1));
+		}
+		ContactCsvCodec.write(file, written);
+		List<Contact> contacts = ContactCsvCodec.readParallel(file, 4);
+		assertEquals(written.size(), contacts.size());
+		for (int i = 0; i < written.size(); i++) {
+			assertEquals(written.get(i).contentHash(), contacts.get(i).contentHash());
+		}
+		assertSame(written.get(0).getCity(), contacts.get(59999).getCity());
+		assertSame(StringDictionary.STATES.canonical(new String("Maharashtra")), contacts.get(0).getState());
+	}
+
+	@Test
+	public void givenMalformedRowNearEnd_WhenReadInParallel_ShouldReportItsLineInTheFile() throws IOException {
+		List<Contact> written = new ArrayList<>();
+		for (int i = 0; i < 60000; i++) {
+			written.add(new Contact("First" + i, "Last" + i, "Street " + i, "Pune", "Maharashtra", 411000L + i,
+					9000000000L + i, "contact" + i + "@gmail.com", LocalDate.of(2020, 1, 1), 1));
+		}
+		ContactCsvCodec.write(file, written);
+		Files.write(file, "Bad,Row\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+		try {
+			ContactCsvCodec.readParallel(file, 4);
+			fail("Expected the malformed row to be reported");
+		} catch (IOException e) {
+			assertEquals("Row on line 60002 has 2 fields, expected at least 8", e.getMessage());
+		}
+	}
+}
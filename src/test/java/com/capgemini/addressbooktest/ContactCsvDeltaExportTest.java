@@ -0,0 +1,115 @@
+package com.capgemini.addressbooktest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import com.capgemini.addressbookdb.AddressBook;
+import com.capgemini.addressbookdb.Contact;
+import com.capgemini.addressbookdb.ContactCsvCodec;
+import com.capgemini.addressbookdb.ContactCsvDeltaExport;
+
+public class ContactCsvDeltaExportTest {
+	private Path directory;
+	private Path csv;
+	private Map<String, AddressBook> cityBookMap;
+	private AddressBook akola;
+
+	@Before
+	public void setup() throws IOException {
+		directory = Files.createTempDirectory("delta");
+		csv = directory.resolve("AddressBook.csv");
+		akola = new AddressBook("Akola");
+		akola.addContact(new Contact("Aditya", "Kharade", "Station Road", "Akola", "Maharashtra", 444005L,
+				9988776655L, "aditya@gmail.com"));
+		akola.addContact(new Contact("Aniket", "Sarap", "MG Road", "Akola", "Maharashtra", 444001L, 8850273350L, null));
+		akola.addContact(new Contact("Rahul", "Deshmukh", "Camp", "Akola", "Maharashtra", 444001L, 8877665544L, null));
+		cityBookMap = new HashMap<>();
+		cityBookMap.put("Akola", akola);
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			for (Path file : files.collect(Collectors.toList())) {
+				Files.delete(file);
+			}
+		}
+		Files.delete(directory);
+	}
+
+	@Test
+	public void givenChangesAfterFullExport_WhenDeltaWritten_ShouldWriteOnlyChangesAndMergeBack() throws IOException {
+		assertEquals(3, ContactCsvDeltaExport.writeFull(csv, cityBookMap));
+		akola.getContactList().get(1).setPhoneNumber(9000000001L);
+		akola.deleteContact("Rahul Deshmukh");
+		akola.addContact(new Contact("Neha", "Joshi", "Civil Lines", "Akola", "Maharashtra", 444001L, 6655443322L,
+				null));
+		assertEquals(3, ContactCsvDeltaExport.writeDelta(csv, cityBookMap));
+		assertEquals(2, ContactCsvCodec.readAll(directory.resolve("AddressBook.csv.1")).size());
+		assertEquals(3, ContactCsvCodec.readAll(csv).size());
+
+		List<Contact> merged = ContactCsvDeltaExport.readMerged(csv);
+		assertEquals("[Aditya, Aniket, Neha]",
+				merged.stream().map(Contact::getFirstName).collect(Collectors.toList()).toString());
+		assertEquals(9000000001L, merged.get(1).getPhoneNumber());
+
+		assertEquals(3, ContactCsvDeltaExport.merge(csv));
+		assertFalse(Files.exists(directory.resolve("AddressBook.csv.1")));
+		assertEquals(merged.get(2).contentHash(), ContactCsvCodec.readAll(csv).get(2).contentHash());
+	}
+
+	@Test
+	public void givenSameNameInTwoCities_WhenDeltaMerged_ShouldKeepCitiesApart() throws IOException {
+		AddressBook pune = new AddressBook("Pune");
+		pune.addContact(new Contact("Rahul", "Deshmukh", "Camp", "Pune", "Maharashtra", 411001L, 8877665500L, null));
+		cityBookMap.put("Pune", pune);
+		ContactCsvDeltaExport.writeFull(csv, cityBookMap);
+		pune.getContactList().get(0).setPhoneNumber(9000000002L);
+		akola.deleteContact("Rahul Deshmukh");
+		ContactCsvDeltaExport.writeDelta(csv, cityBookMap);
+
+		List<Contact> merged = ContactCsvDeltaExport.readMerged(csv);
+		assertEquals(3, merged.size());
+		List<Contact> rahuls = merged.stream().filter(c -> c.getFirstName().equals("Rahul"))
+				.collect(Collectors.toList());
+		assertEquals(1, rahuls.size());
+		assertEquals("Pune", rahuls.get(0).getCity());
+		assertEquals(9000000002L, rahuls.get(0).getPhoneNumber());
+	}
+
+	@Test
+	public void givenContactRenamedAndMoved_WhenDeltaMerged_ShouldDropOldRows() throws IOException {
+		ContactCsvDeltaExport.writeFull(csv, cityBookMap);
+		akola.getContactList().get(0).setFirstName("Adi");
+		akola.getContactList().get(1).setCity("Pune");
+		assertEquals(4, ContactCsvDeltaExport.writeDelta(csv, cityBookMap));
+
+		List<Contact> merged = ContactCsvDeltaExport.readMerged(csv);
+		assertEquals(3, merged.size());
+		assertEquals("[Rahul Akola, Adi Akola, Aniket Pune]", merged.stream()
+				.map(c -> c.getFirstName() + " " + c.getCity()).collect(Collectors.toList()).toString());
+		assertEquals(0, ContactCsvDeltaExport.writeDelta(csv, cityBookMap));
+	}
+
+	@Test
+	public void givenNoChanges_WhenDeltaWritten_ShouldWriteNothing() throws IOException {
+		ContactCsvDeltaExport.writeFull(csv, cityBookMap);
+		assertEquals(0, ContactCsvDeltaExport.writeDelta(csv, cityBookMap));
+		assertTrue(akola.getChangedContacts().isEmpty());
+		try (Stream<Path> files = Files.list(directory)) {
+			assertEquals(2, files.count());
+		}
+	}
+}
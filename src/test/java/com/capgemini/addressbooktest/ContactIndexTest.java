@@ -0,0 +1,65 @@
+package com.capgemini.addressbooktest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+import com.capgemini.addressbookdb.AddressBook;
+import com.capgemini.addressbookdb.Contact;
+import com.capgemini.addressbookdb.ContactIndex;
+
+public class ContactIndexTest {
+	private ContactIndex contactIndex;
+	private Contact aniket;
+	private Contact sachin;
+
+	@Before
+	public void setup() {
+		aniket = new Contact(1, "Aniket", "Sarap", "Kaulkhed", "Akola", "Maharashtra", 444001L, 8850273350L,
+				"abcd@gmail.com", LocalDate.of(2021, 01, 01));
+		sachin = new Contact(2, "Sachin", "Badhe", "Kothrud", "Pune", "Maharashtra", 411038L, 7887483853L,
+				"abcd@gmail.com", LocalDate.of(2021, 01, 01));
+		contactIndex = new ContactIndex();
+		contactIndex.add(aniket);
+		contactIndex.add(sachin);
+	}
+
+	@Test
+	public void givenIndexedContacts_WhenLookedUpInAnyCase_ShouldMatchCityAndState() {
+		assertEquals(1, contactIndex.getByCity("pune").size());
+		assertTrue(contactIndex.getByCity("AKOLA").get(0) == aniket);
+		assertEquals(2, contactIndex.getByState("maharashtra").size());
+		assertEquals(1, contactIndex.countByCity("Akola"));
+		assertEquals(2, contactIndex.countByState("MAHARASHTRA"));
+		assertEquals(0, contactIndex.countByCity("Nagpur"));
+		assertTrue(contactIndex.getByState("Goa").isEmpty());
+	}
+
+	@Test
+	public void givenIndexedContact_WhenRemoved_ShouldDisappearFromCityAndState() {
+		contactIndex.remove(aniket);
+		assertEquals(0, contactIndex.countByCity("Akola"));
+		assertTrue(contactIndex.getByCity("Akola").isEmpty());
+		assertEquals(1, contactIndex.countByState("Maharashtra"));
+		assertTrue(contactIndex.getByState("Maharashtra").get(0) == sachin);
+	}
+
+	@Test
+	public void givenBookSharingIndex_WhenContactDeletedFromMiddle_ShouldKeepOthersIndexed() {
+		ContactIndex shared = new ContactIndex();
+		AddressBook akola = new AddressBook("Akola", shared);
+		akola.addContact(aniket);
+		akola.addContact(new Contact("Aditya", "Kharade", "Station Road", "Akola", "Maharashtra", 444005L,
+				9988776655L, null));
+		akola.addContact(new Contact("Rahul", "Deshmukh", "Camp", "Akola", "Maharashtra", 444001L, 8877665544L,
+				null));
+		akola.deleteContact("Aditya Kharade");
+		assertEquals(2, akola.getContactList().size());
+		assertFalse(akola.getContactList().stream().anyMatch(c -> c.getFirstName().equals("Aditya")));
+		assertEquals(2, shared.countByCity("akola"));
+		assertEquals(2, shared.getByState("Maharashtra").size());
+	}
+}
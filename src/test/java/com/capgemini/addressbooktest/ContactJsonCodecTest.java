@@ -0,0 +1,107 @@
+package com.capgemini.addressbooktest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import com.capgemini.addressbookdb.Contact;
+import com.capgemini.addressbookdb.ContactJsonCodec;
+import com.capgemini.addressbookdb.ContactJsonWriter;
+import com.google.gson.JsonParser;
+
+public class ContactJsonCodecTest {
+	private Path file;
+
+	@Before
+	public void setup() throws IOException {
+		file = Files.createTempFile("contacts", ".json");
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	@Test
+	public void givenContacts_WhenWritten_ShouldBeOneValidArrayThatReadsBack() throws IOException {
+		Contact aditya = new Contact("Aditya", "Kharade", "Flat 4, \"Sai\" Apartments", "Akola", "Maharashtra",
+				444005L, 9988776655L, "aditya@gmail.com", LocalDate.of(2019, 5, 12), 1);
+		Contact neha = new Contact("Neha", "Joshi", null, "Bengaluru", "Karnataka", 560001L, 6655443322L, null);
+		ContactJsonCodec.write(file, Arrays.asList(aditya, neha));
+		String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+		assertEquals(2, new JsonParser().parse(json).getAsJsonArray().size());
+		assertTrue(json.contains("\"date\":\"2019-05-12\""));
+		List<Contact> contacts = ContactJsonCodec.readAll(file);
+		assertEquals(aditya.contentHash(), contacts.get(0).contentHash());
+		assertEquals(1, contacts.get(0).addId);
+		assertNull(contacts.get(1).getAddress());
+		assertEquals(neha.contentHash(), contacts.get(1).contentHash());
+	}
+
+	@Test
+	public void givenFailureMidExport_WhenWritten_ShouldKeepPreviousFileAndLeaveNoPartialArray() throws IOException {
+		Contact neha = new Contact("Neha", "Joshi", null, "Bengaluru", "Karnataka", 560001L, 6655443322L, null);
+		ContactJsonCodec.write(file, Arrays.asList(neha, neha));
+		Iterable<Contact> failing = () -> new Iterator<Contact>() {
+			private boolean served;
+
+			@Override
+			public boolean hasNext() {
+				return true;
+			}
+
+			@Override
+			public Contact next() {
+				if (served) {
+					throw new IllegalStateException("Source failed");
+				}
+				served = true;
+				return neha;
+			}
+		};
+		try {
+			ContactJsonCodec.write(file, failing);
+			fail("Expected the export to fail");
+		} catch (IllegalStateException e) {
+			assertEquals("Source failed", e.getMessage());
+		}
+		assertEquals(2, ContactJsonCodec.readAll(file).size());
+		assertFalse(Files.exists(file.resolveSibling(file.getFileName() + ".tmp")));
+
+		StringWriter out = new StringWriter();
+		ContactJsonWriter writer = new ContactJsonWriter(out);
+		try {
+			writer.writeAll(failing);
+		} catch (IllegalStateException e) {
+			writer.close();
+		}
+		assertFalse(out.toString().endsWith("]"));
+	}
+
+	@Test
+	public void givenOldConcatenatedObjectsWithDateObjects_WhenRead_ShouldMapEveryContact() throws IOException {
+		String json = "{\"firstName\":\"Aniket\",\"lastName\":\"Sarap\",\"zip\":444001,\"phoneNumber\":8850273350,"
+				+ "\"addId\":2,\"date\":{\"year\":2021,\"month\":1,\"day\":1},\"id\":3,\"tags\":[\"x\"]}"
+				+ "{\"firstName\":\"Rahul\",\"lastName\":\"Deshmukh\",\"zip\":444001,\"phoneNumber\":8877665544}";
+		Files.write(file, json.getBytes(StandardCharsets.UTF_8));
+		List<Contact> contacts = ContactJsonCodec.readAll(file);
+		assertEquals(2, contacts.size());
+		assertEquals(LocalDate.of(2021, 1, 1), contacts.get(0).date);
+		assertEquals(3, contacts.get(0).id);
+		assertEquals(8877665544L, contacts.get(1).getPhoneNumber());
+	}
+}
@@ -0,0 +1,84 @@
+package com.capgemini.addressbooktest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import com.capgemini.addressbookdb.Contact;
+import com.capgemini.addressbookdb.ContactLog;
+
+public class ContactLogTest {
+	private Path file;
+
+	@Before
+	public void setup() throws IOException {
+		file = Files.createTempFile("contacts", ".log");
+		Files.delete(file);
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	@Test
+	public void givenAddsUpdatesAndDeletes_WhenReopenedAndCompacted_ShouldReplayTheLiveContacts() throws IOException {
+		Contact aditya = new Contact("Aditya", "Kharade", "Station Road", "Akola", "Maharashtra", 444005L,
+				9988776655L, "aditya@gmail.com", LocalDate.of(2019, 5, 12), 1);
+		Contact neha = new Contact("Neha", "Joshi", null, "Bengaluru", "Karnataka", 560001L, 6655443322L, null);
+		try (ContactLog log = ContactLog.open(file)) {
+			log.add(aditya);
+			log.add(neha);
+			aditya.phoneNumber = 8850273350L;
+			log.update(aditya);
+			log.delete(neha);
+		}
+		try (ContactLog log = ContactLog.open(file)) {
+			List<Contact> contacts = log.getContacts();
+			assertEquals(1, contacts.size());
+			assertEquals(aditya.contentHash(), contacts.get(0).contentHash());
+			assertTrue(log.getDeadBytes() > 0);
+			long length = log.getLength();
+			log.compact();
+			assertEquals(0, log.getDeadBytes());
+			assertTrue(log.getLength() < length);
+			contacts.get(0).city = "Nagpur";
+			log.update(contacts.get(0));
+		}
+		try (ContactLog log = ContactLog.open(file)) {
+			assertEquals("Nagpur", log.getContacts().get(0).getCity());
+			assertEquals(8850273350L, log.getContacts().get(0).getPhoneNumber());
+		}
+	}
+
+	@Test
+	public void givenTornLastRecord_WhenReopened_ShouldKeepTheRecordsBeforeIt() throws IOException {
+		long tornAt;
+		try (ContactLog log = ContactLog.open(file)) {
+			log.add(new Contact("Aniket", "Sarap", "MG Road", "Akola", "Maharashtra", 444001L, 8850273350L, null));
+			tornAt = log.getLength();
+			log.add(new Contact("Rahul", "Deshmukh", "Camp", "Pune", "Maharashtra", 411001L, 8877665544L, null));
+		}
+		try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+			raw.seek(tornAt + 12);
+			raw.write(0xFF);
+		}
+		try (ContactLog log = ContactLog.open(file)) {
+			assertEquals(1, log.size());
+			assertEquals(tornAt, log.getLength());
+			log.add(new Contact("Sachin", "Patil", "Camp", "Pune", "Maharashtra", 411001L, 9876543210L, null));
+		}
+		try (ContactLog log = ContactLog.open(file)) {
+			assertEquals(2, log.size());
+			assertEquals("Sachin", log.getContacts().get(1).getFirstName());
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package com.capgemini.addressbooktest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import com.capgemini.addressbookdb.AddressBookDB;
+import com.capgemini.addressbookdb.ConnectionPool;
+import com.capgemini.addressbookdb.ConnectionPoolConfig;
+import com.capgemini.addressbookdb.Contact;
+import com.capgemini.addressbookdb.DatabaseException;
+import com.capgemini.addressbookdb.SchemaMigrator;
+
+public class ContactQueryPlanTest {
+	private ConnectionPool connectionPool;
+
+	@Before
+	public void setup() throws DatabaseException, SQLException {
+		ConnectionPoolConfig config = new ConnectionPoolConfig();
+		config.setDriverClassName("org.h2.Driver");
+		config.setJdbcURL("jdbc:h2:mem:queryplantest;MODE=MySQL;DB_CLOSE_DELAY=-1");
+		config.setUserName("sa");
+		config.setPassword("");
+		config.setHousekeepingPeriodMillis(0);
+		connectionPool = new ConnectionPool(config);
+		try (Connection connection = connectionPool.getConnection();
+				Statement statement = connection.createStatement()) {
+			statement.execute("RUNSCRIPT FROM 'classpath:schema.sql'");
+		}
+		new SchemaMigrator(connectionPool).migrate();
+	}
+
+	@After
+	public void tearDown() {
+		connectionPool.shutdown();
+	}
+
+	private String explain(String sql, String... parameters) throws SQLException, DatabaseException {
+		try (Connection connection = connectionPool.getConnection();
+				PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+			for (int i = 0; i < parameters.length; i++) {
+				statement.setString(i + 1, parameters[i]);
+			}
+			try (ResultSet resultSet = statement.executeQuery()) {
+				resultSet.next();
+				return resultSet.getString(1);
+			}
+		}
+	}
+
+	@Test
+	public void givenCityAndState_WhenQueried_ShouldBindBothAndSortByName() throws DatabaseException {
+		List<Contact> contacts = new AddressBookDB(connectionPool).getContactForCityAndState("Akola", "Maharashtra");
+		assertEquals(2, contacts.size());
+		assertEquals("Aditya", contacts.get(0).getFirstName());
+		assertEquals(0, new AddressBookDB(connectionPool).getContactForCityAndState("Akola", "Karnataka").size());
+	}
+
+	@Test
+	public void givenCityAndStateQuery_WhenExplained_ShouldUseCompositeIndexForFilterAndOrder()
+			throws SQLException, DatabaseException {
+		String plan = explain(AddressBookDB.CONTACTS_IN_CITY_AND_STATE_SQL, "Maharashtra", "Akola").toUpperCase();
+		assertTrue(plan, plan.contains("IDX_CONTACT_STATE_CITY_NAME"));
+		assertTrue(plan, plan.contains("INDEX SORTED"));
+		assertFalse(plan, plan.contains("TABLESCAN"));
+	}
+
+	@Test
+	public void givenMigratedSchema_WhenMigratedAgain_ShouldApplyNothing() throws DatabaseException {
+		assertEquals(0, new SchemaMigrator(connectionPool).migrate());
+	}
+}
@@ -0,0 +1,51 @@
+package com.capgemini.addressbooktest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import com.capgemini.addressbookdb.Contact;
+import com.capgemini.addressbookdb.ContactSorter;
+import com.capgemini.addressbookdb.SortByName;
+import com.capgemini.addressbookdb.SortByZip;
+
+public class ContactSorterTest {
+	private static Contact contact(String firstName, String lastName, long zip) {
+		return new Contact(firstName, lastName, null, "Akola", "Maharashtra", zip, 9988776655L, null);
+	}
+
+	@Test
+	public void givenNamesSharingPrefixes_WhenSorted_ShouldMatchFullNameOrder() {
+		List<Contact> contacts = new ArrayList<>(Arrays.asList(contact("Anna", "Bee", 1), contact("Ann", "Zed", 2),
+				contact("Ann", "Abe", 3), contact("Ann-Marie", "Bo", 4), contact("Annabel", "A", 5)));
+		List<String> expected = contacts.stream().map(c -> c.getFirstName() + " " + c.getLastName()).sorted()
+				.collect(Collectors.toList());
+		List<Contact> byComparator = new ArrayList<>(contacts);
+		byComparator.sort(new SortByName());
+		ContactSorter.sortByName(contacts);
+		assertEquals(expected, contacts.stream().map(Contact::getNameKey).collect(Collectors.toList()));
+		assertEquals(contacts, byComparator);
+		contacts.get(0).setLastName("Zz");
+		assertEquals("Ann Zz", contacts.get(0).getNameKey());
+	}
+
+	@Test
+	public void givenEqualAndExtremeZips_WhenRadixSorted_ShouldMatchComparatorAndKeepTies() {
+		Contact first = contact("Aditya", "Kharade", 444001L);
+		Contact second = contact("Aniket", "Sarap", 444001L);
+		List<Contact> contacts = new ArrayList<>(Arrays.asList(contact("Neha", "Joshi", Long.MAX_VALUE), first,
+				contact("Rahul", "Deshmukh", -5L), second, contact("Om", "Pawar", 0x1_0000_0000L),
+				contact("Sai", "Kale", Long.MIN_VALUE)));
+		List<Contact> byComparator = new ArrayList<>(contacts);
+		byComparator.sort(new SortByZip());
+		ContactSorter.sortByZip(contacts);
+		assertEquals(byComparator, contacts);
+		assertEquals(Long.MIN_VALUE, contacts.get(0).getZip());
+		assertSame(first, contacts.get(2));
+		assertSame(second, contacts.get(3));
+	}
+}
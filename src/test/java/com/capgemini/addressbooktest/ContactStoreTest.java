@@ -0,0 +1,52 @@
+package com.capgemini.addressbooktest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import org.junit.Before;
+import org.junit.Test;
+import com.capgemini.addressbookdb.ContactStore;
+import com.capgemini.addressbookdb.Contact;
+
+public class ContactStoreTest {
+	private ContactStore contactStore;
+	private Contact aniket;
+	private Contact sachin;
+
+	@Before
+	public void setup() {
+		aniket = new Contact(1, "Aniket", "Sarap", "Kaulkhed", "Akola", "Maharashtra", 444001L, 8850273350L,
+				"abcd@gmail.com", LocalDate.of(2021, 01, 01));
+		sachin = new Contact(2, "Sachin", "Badhe", "Kothrud", "Pune", "Maharashtra", 411038L, 7887483853L,
+				"abcd@gmail.com", LocalDate.of(2021, 01, 01));
+		contactStore = new ContactStore(Arrays.asList(aniket, sachin));
+	}
+
+	@Test
+	public void givenStoredContacts_WhenLookedUp_ShouldUseEveryIndex() {
+		assertTrue(contactStore.getById(2) == sachin);
+		assertTrue(contactStore.getFirstByFirstName("Aniket") == aniket);
+		assertEquals(1, contactStore.getByFullName("Sachin Badhe").size());
+		assertEquals(1, contactStore.getByCity("Pune").size());
+		assertEquals(2, contactStore.countByState("Maharashtra"));
+	}
+
+	@Test
+	public void givenContactMovedToAnotherCity_WhenUpdated_ShouldBeReindexed() {
+		contactStore.update(sachin, contact -> contact.setCity("Akola"));
+		assertEquals(0, contactStore.countByCity("Pune"));
+		assertEquals(2, contactStore.countByCity("Akola"));
+	}
+
+	@Test
+	public void givenStoredContact_WhenRemoved_ShouldDisappearFromIndexes() {
+		contactStore.remove(aniket);
+		assertEquals(1, contactStore.size());
+		assertNull(contactStore.getFirstByFirstName("Aniket"));
+		assertNull(contactStore.getById(1));
+		assertEquals(1, contactStore.countByState("Maharashtra"));
+	}
+}
@@ -0,0 +1,77 @@
+package com.capgemini.addressbooktest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import com.capgemini.addressbookdb.AddressBookDB;
+import com.capgemini.addressbookdb.ConnectionPool;
+import com.capgemini.addressbookdb.ConnectionPoolConfig;
+import com.capgemini.addressbookdb.DatabaseException;
+import com.capgemini.addressbookdb.InMemoryMetricsRegistry;
+import com.capgemini.addressbookdb.Log4jMetricsReporter;
+import com.capgemini.addressbookdb.Metrics;
+import com.capgemini.addressbookdb.MetricsRegistry;
+
+public class MetricsTest {
+	private MetricsRegistry previousRegistry;
+	private InMemoryMetricsRegistry registry;
+
+	@Before
+	public void setup() {
+		previousRegistry = Metrics.getRegistry();
+		registry = new InMemoryMetricsRegistry();
+		Metrics.setRegistry(registry);
+	}
+
+	@After
+	public void tearDown() {
+		Metrics.setRegistry(previousRegistry);
+	}
+
+	@Test
+	public void givenTimedOperations_WhenOneFails_ShouldCountCallsErrorsAndLatency() {
+		Metrics.time("test.sum", () -> 1 + 1);
+		try {
+			Metrics.run("test.sum", () -> {
+				throw new DatabaseException("Unable to add");
+			});
+		} catch (DatabaseException e) {
+			assertEquals("Unable to add", e.getMessage());
+		}
+		InMemoryMetricsRegistry.Snapshot snapshot = registry.getSnapshot("test.sum");
+		assertEquals(2, snapshot.getCount());
+		assertEquals(1, snapshot.getErrors());
+		assertEquals(0, snapshot.getInFlight());
+		assertTrue(snapshot.getPercentileMillis(99) >= snapshot.getMaxMillis());
+		assertEquals(1, new Log4jMetricsReporter(registry).report());
+	}
+
+	@Test
+	public void givenDatabaseRead_WhenTimed_ShouldRecordQueryAndConnectionAcquisition()
+			throws DatabaseException, SQLException {
+		ConnectionPoolConfig config = new ConnectionPoolConfig();
+		config.setDriverClassName("org.h2.Driver");
+		config.setJdbcURL("jdbc:h2:mem:metricstest;MODE=MySQL;DB_CLOSE_DELAY=-1");
+		config.setUserName("sa");
+		config.setPassword("");
+		config.setHousekeepingPeriodMillis(0);
+		ConnectionPool connectionPool = new ConnectionPool(config);
+		try (Connection connection = connectionPool.getConnection();
+				Statement statement = connection.createStatement()) {
+			statement.execute("RUNSCRIPT FROM 'classpath:schema.sql'");
+		}
+		try {
+			assertEquals(4, new AddressBookDB(connectionPool).readData().size());
+			assertEquals(1, registry.getSnapshot("db.readData").getCount());
+			assertEquals(2, registry.getSnapshot("pool.acquire").getCount());
+		} finally {
+			connectionPool.shutdown();
+		}
+	}
+}
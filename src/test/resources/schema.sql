@@ -0,0 +1,42 @@
+-- Embedded stand-in for the addressBookService MySQL schema, run by the H2 backed tests
+DROP TABLE IF EXISTS schema_version;
+DROP TABLE IF EXISTS addressbookjoin;
+DROP TABLE IF EXISTS addressbook;
+DROP TABLE IF EXISTS contact_table;
+
+CREATE TABLE contact_table (
+	contact_id INT AUTO_INCREMENT PRIMARY KEY,
+	fname VARCHAR(50) NOT NULL,
+	lname VARCHAR(50) NOT NULL,
+	address VARCHAR(150),
+	zip BIGINT,
+	city VARCHAR(50),
+	state VARCHAR(50),
+	phone BIGINT,
+	email VARCHAR(100),
+	date DATE
+);
+
+CREATE TABLE addressbook (
+	add_id INT PRIMARY KEY,
+	addname VARCHAR(50) NOT NULL,
+	type VARCHAR(50) NOT NULL
+);
+
+CREATE TABLE addressbookjoin (
+	contact_id INT NOT NULL,
+	add_id INT NOT NULL,
+	PRIMARY KEY (contact_id, add_id),
+	FOREIGN KEY (contact_id) REFERENCES contact_table (contact_id),
+	FOREIGN KEY (add_id) REFERENCES addressbook (add_id)
+);
+
+INSERT INTO addressbook (add_id, addname, type) VALUES (1, 'Home', 'Family'), (2, 'Office', 'Profession');
+
+INSERT INTO contact_table (fname, lname, address, zip, city, state, phone, email, date) VALUES
+	('Aditya', 'Kharade', 'Ranpise Nagar', 444005, 'Akola', 'Maharashtra', 9988776655, 'aditya@gmail.com', '2019-05-12'),
+	('Rahul', 'Deshmukh', 'Gandhi Road', 444001, 'Akola', 'Maharashtra', 8877665544, 'rahul@gmail.com', '2020-06-20'),
+	('Priya', 'Patil', 'Shivaji Nagar', 411005, 'Pune', 'Maharashtra', 7766554433, 'priya@gmail.com', '2018-01-15'),
+	('Neha', 'Joshi', 'MG Road', 560001, 'Bengaluru', 'Karnataka', 6655443322, 'neha@gmail.com', '2017-09-03');
+
+INSERT INTO addressbookjoin (contact_id, add_id) VALUES (1, 1), (2, 1), (3, 2), (4, 2);